@@ -0,0 +1,11 @@
+package com.zyy.design.pattern.dhsjms.benchmark;
+
+/**
+ * 调用点形态
+ */
+public enum CallSite {
+    // 调用点只见到一种实现，JIT 可以直接内联
+    MONOMORPHIC,
+    // 调用点轮流见到三种及以上实现，只能走虚方法表分派
+    MEGAMORPHIC
+}
@@ -0,0 +1,67 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter02;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第2章 demo03：逐个 payOrder 与批量 payOrders，结果为每行耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkPricingBenchmark {
+
+    private static final int LINES = 4096;
+
+    @Param({"正常收费", "8折", "满200减30"})
+    public String discount;
+
+    private CashContext context;
+    private double[] moneys;
+    private double[] results;
+
+    @Setup
+    public void setup() {
+        context = new CashContext(discount);
+        moneys = new double[LINES];
+        results = new double[LINES];
+        Random random = new Random(42);
+        for (int i = 0; i < LINES; i++) {
+            moneys[i] = (1 + random.nextInt(100_000)) / 100D;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public double[] perCall() {
+        for (int i = 0; i < LINES; i++) {
+            results[i] = context.payOrder(moneys[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public double[] bulk() {
+        context.payOrders(moneys, results);
+        return results;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter02;
+
+import com.zyy.design.pattern.dhsjms.benchmark.CallSite;
+
+/**
+ * 按调用点形态挑选促销名称：单态只用打折，多态轮流使用正常收费、打折、满减三种策略
+ */
+final class Discounts {
+
+    private Discounts() {
+    }
+
+    static String[] of(CallSite callSite) {
+        return callSite == CallSite.MONOMORPHIC
+                ? new String[]{"8折"}
+                : new String[]{"正常收费", "8折", "满200减30"};
+    }
+
+}
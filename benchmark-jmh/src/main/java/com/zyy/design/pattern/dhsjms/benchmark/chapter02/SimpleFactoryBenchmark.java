@@ -0,0 +1,52 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter02;
+
+import com.zyy.design.pattern.dhsjms.benchmark.CallSite;
+import com.zyy.design.pattern.dhsjms.chapter02.demo02.cash.CashFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第2章 demo02：简单工厂按促销名称取收费策略，再计算应收
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimpleFactoryBenchmark {
+
+    @Param({"MONOMORPHIC", "MEGAMORPHIC"})
+    public CallSite callSite;
+
+    private String[] discounts;
+    private int index;
+    private double money;
+
+    @Setup
+    public void setup() {
+        discounts = Discounts.of(callSite);
+        money = 345.67;
+    }
+
+    @Benchmark
+    public double createCashAccept() {
+        String discount = discounts[index];
+        if (++index == discounts.length) {
+            index = 0;
+        }
+        return CashFactory.createCashAccept(discount).acceptCash(money);
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter02;
+
+import com.zyy.design.pattern.dhsjms.benchmark.CallSite;
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第2章 demo03：策略 + 简单工厂的 CashContext
+ * newContextPerItem 与 CashierSystem 一样每件商品新建上下文，reusedContext 复用已创建的上下文
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyContextBenchmark {
+
+    @Param({"MONOMORPHIC", "MEGAMORPHIC"})
+    public CallSite callSite;
+
+    private String[] discounts;
+    private CashContext[] contexts;
+    private int index;
+    private double money;
+
+    @Setup
+    public void setup() {
+        discounts = Discounts.of(callSite);
+        contexts = new CashContext[discounts.length];
+        for (int i = 0; i < discounts.length; i++) {
+            contexts[i] = new CashContext(discounts[i]);
+        }
+        money = 345.67;
+    }
+
+    @Benchmark
+    public double newContextPerItem() {
+        String discount = discounts[next()];
+        return new CashContext(discount).payOrder(money);
+    }
+
+    @Benchmark
+    public double reusedContext() {
+        return contexts[next()].payOrder(money);
+    }
+
+    private int next() {
+        int current = index;
+        if (++index == discounts.length) {
+            index = 0;
+        }
+        return current;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter06;
+
+import com.zyy.design.pattern.dhsjms.benchmark.CallSite;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.PriceTrace;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第6章装饰链基准的公共部分：参数、准备和测量方法，子类只负责用各自 demo 的类型构造装饰链
+ * depth 为 CashNormal 外面包装的装饰者层数，交替使用打8折、满200减30
+ * @param <S> demo 中的收费接口 ISale
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public abstract class ChainBenchmark<S> {
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int depth;
+
+    @Param({"MONOMORPHIC", "MEGAMORPHIC"})
+    public CallSite callSite;
+
+    @Param({"NOOP", "CONSOLE"})
+    public TraceMode trace;
+
+    @Param({"RECURSIVE", "COMPILED"})
+    public Form form;
+
+    private S[] sales;
+    private int index;
+    private double price;
+    private int num;
+    private TraceSink previousSink;
+
+    @Setup
+    public void setup() {
+        previousSink = PriceTrace.sink();
+        PriceTrace.setSink(trace.sink());
+        // 多态时最外层依次是 CashRebate、CashReturn、CashSuper 三种类型
+        int variants = callSite == CallSite.MONOMORPHIC ? 1 : 3;
+        sales = newArray(variants);
+        for (int i = 0; i < variants; i++) {
+            S chain = chain(depth, i);
+            sales[i] = form == Form.COMPILED ? compile(chain) : chain;
+        }
+        price = 123.45;
+        num = 3;
+    }
+
+    @TearDown
+    public void tearDown() {
+        PriceTrace.setSink(previousSink);
+    }
+
+    @Benchmark
+    public double acceptCash() {
+        S sale = sales[index];
+        if (++index == sales.length) {
+            index = 0;
+        }
+        return acceptCash(sale, price, num);
+    }
+
+    /**
+     * 构造 depth 层的装饰链；variant 为 2 时最外层是不做任何计算的 CashSuper，其余情况从外往里第 0 层的类型由 variant 决定
+     */
+    protected abstract S chain(int depth, int variant);
+
+    protected abstract S compile(S sale);
+
+    // 调用点在子类中，每个 demo 的类型分布单独统计
+    protected abstract double acceptCash(S sale, double price, int num);
+
+    protected abstract S[] newArray(int length);
+
+    /**
+     * 从外往里数第 layer 层（共 layers 层）是否使用打8折
+     */
+    protected static boolean isRebate(int layers, int layer, int variant) {
+        return (layers - 1 - layer + variant) % 2 == 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter06;
+
+import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashCompiler;
+import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashSuper;
+import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.ISale;
+import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.impl.CashNormal;
+import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.impl.CashRebate;
+import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.impl.CashReturn;
+
+/**
+ * 第6章 demo01：装饰者先计算自己的算法，再交给内层组件
+ * 参数和测量方法见 {@link ChainBenchmark}
+ */
+public class Demo01ChainBenchmark extends ChainBenchmark<ISale> {
+
+    @Override
+    protected ISale chain(int depth, int variant) {
+        ISale sale = new CashNormal();
+        int layers = variant == 2 ? depth - 1 : depth;
+        for (int i = 0; i < layers; i++) {
+            CashSuper decorator = isRebate(layers, i, variant) ? new CashRebate(0.8) : new CashReturn(200D, 30D);
+            decorator.setComponent(sale);
+            sale = decorator;
+        }
+        if (variant == 2) {
+            CashSuper passThrough = new CashSuper();
+            passThrough.setComponent(sale);
+            sale = passThrough;
+        }
+        return sale;
+    }
+
+    @Override
+    protected ISale compile(ISale sale) {
+        return CashCompiler.compile(sale);
+    }
+
+    @Override
+    protected double acceptCash(ISale sale, double price, int num) {
+        return sale.acceptCash(price, num);
+    }
+
+    @Override
+    protected ISale[] newArray(int length) {
+        return new ISale[length];
+    }
+}
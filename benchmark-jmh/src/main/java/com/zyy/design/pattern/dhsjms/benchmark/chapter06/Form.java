@@ -0,0 +1,11 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter06;
+
+/**
+ * 装饰链的调用形式
+ */
+public enum Form {
+    // 原装饰链，逐层递归调用
+    RECURSIVE,
+    // CashCompiler 编译后的扁平收费函数
+    COMPILED
+}
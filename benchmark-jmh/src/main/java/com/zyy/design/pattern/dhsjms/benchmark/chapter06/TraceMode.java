@@ -0,0 +1,22 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter06;
+
+import com.zyy.design.pattern.dhsjms.chapter06.trace.ConsoleTraceSink;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.NoopTraceSink;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * 装饰者的收费轨迹：CONSOLE 保留原来的逐步打印（拼接字符串 + 同步的 println，输出到空流），NOOP 不记录
+ */
+public enum TraceMode {
+    NOOP,
+    CONSOLE;
+
+    TraceSink sink() {
+        return this == NOOP
+                ? NoopTraceSink.INSTANCE
+                : new ConsoleTraceSink(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
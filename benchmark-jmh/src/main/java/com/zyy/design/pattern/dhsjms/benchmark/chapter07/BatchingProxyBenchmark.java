@@ -0,0 +1,153 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter07;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.batch.BatchingProxy;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.AsyncUserService;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.BatchUserService;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 第7章 demojdk：微批代理
+ *
+ * 每次调用新增 {@value #ITEMS} 个用户，每次数据库往返用 parkNanos 模拟，结果按每个用户计：
+ * single 逐条调用；batch 调用者自己按 maxBatchSize 分批；asyncProxy 经 BatchingProxy 逐条提交再等待全部结果
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchingProxyBenchmark {
+
+    private static final int ITEMS = 1024;
+    private static final int MAX_BATCH_SIZE = 128;
+
+    // 一次数据库往返的微秒数
+    @Param({"20"})
+    public long roundTripMicros;
+
+    private UserDao dao;
+    private BatchingProxy<AsyncUserService> batching;
+    private AsyncUserService asyncProxy;
+    private String[] usernames;
+    private List<CompletableFuture<Boolean>> futures;
+
+    @Setup
+    public void setup() {
+        dao = new UserDao(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        batching = new BatchingProxy<>(AsyncUserService.class, null, MAX_BATCH_SIZE, 1, TimeUnit.MILLISECONDS);
+        batching.batch("addUser", dao::addUsers).batch("deleteUser", dao::deleteUsers);
+        asyncProxy = batching.getProxy();
+        usernames = new String[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            usernames[i] = "user-" + i;
+        }
+        futures = new ArrayList<>(ITEMS);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        batching.close();
+        batching.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long single() {
+        for (String username : usernames) {
+            dao.addUser(username);
+        }
+        return dao.roundTrips;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long batch() {
+        int added = 0;
+        for (int from = 0; from < ITEMS; from += MAX_BATCH_SIZE) {
+            List<String> chunk = new ArrayList<>(MAX_BATCH_SIZE);
+            for (int i = from; i < Math.min(ITEMS, from + MAX_BATCH_SIZE); i++) {
+                chunk.add(usernames[i]);
+            }
+            for (Boolean result : dao.addUsers(chunk)) {
+                added += result ? 1 : 0;
+            }
+        }
+        return added;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long asyncProxy() {
+        futures.clear();
+        for (String username : usernames) {
+            futures.add(asyncProxy.addUser(username));
+        }
+        int added = 0;
+        for (CompletableFuture<Boolean> future : futures) {
+            added += future.join() ? 1 : 0;
+        }
+        return added;
+    }
+
+    /**
+     * 模拟的数据库访问：逐条和批量都是一次往返，不保存数据
+     */
+    private static final class UserDao implements UserService, BatchUserService {
+        private final long roundTripNanos;
+        private volatile long roundTrips;
+
+        private UserDao(long roundTripNanos) {
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        public void addUser(String username) {
+            roundTrip();
+        }
+
+        @Override
+        public void deleteUser(String username) {
+            roundTrip();
+        }
+
+        @Override
+        public List<Boolean> addUsers(List<String> usernames) {
+            roundTrip();
+            List<Boolean> results = new ArrayList<>(usernames.size());
+            for (String username : usernames) {
+                results.add(!username.isEmpty());
+            }
+            return results;
+        }
+
+        @Override
+        public List<Boolean> deleteUsers(List<String> usernames) {
+            return addUsers(usernames);
+        }
+
+        private void roundTrip() {
+            roundTrips++;
+            LockSupport.parkNanos(roundTripNanos);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter07;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache.CachingProxy;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserQueryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第7章 demojdk：缓存代理的命中开销
+ *
+ * direct 直接调用目标对象（不模拟数据库耗时）；cachedHit 经 CachingProxy 调用已缓存的 findNickname；
+ * cachedHitMultiArgs 经代理调用已缓存的两个参数的 isAdmin；uncached 经代理调用没有注解的 countUsers；
+ * cachedHitConcurrent 4 个线程同时命中同一个缓存
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingProxyBenchmark {
+
+    private static final int KEYS = 64;
+
+    private UserQueryService target;
+    private UserQueryService proxy;
+    private String[] usernames;
+
+    @Setup
+    public void setup() {
+        target = new Users();
+        proxy = new CachingProxy<>(UserQueryService.class, target).getProxy();
+        usernames = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            usernames[i] = "user-" + i;
+            proxy.findNickname(usernames[i]);
+            proxy.isAdmin("A", usernames[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        private int next() {
+            return next++ & (KEYS - 1);
+        }
+    }
+
+    @Benchmark
+    public String direct(Cursor cursor) {
+        return target.findNickname(usernames[cursor.next()]);
+    }
+
+    @Benchmark
+    public String cachedHit(Cursor cursor) {
+        return proxy.findNickname(usernames[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean cachedHitMultiArgs(Cursor cursor) {
+        return proxy.isAdmin("A", usernames[cursor.next()]);
+    }
+
+    @Benchmark
+    public int uncached() {
+        return proxy.countUsers();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String cachedHitConcurrent(Cursor cursor) {
+        return proxy.findNickname(usernames[cursor.next()]);
+    }
+
+    /**
+     * 不访问数据库的 UserQueryService
+     */
+    private static final class Users implements UserQueryService {
+        @Override
+        public String findNickname(String username) {
+            return username;
+        }
+
+        @Override
+        public boolean isAdmin(String tenant, String username) {
+            return tenant.length() == 1;
+        }
+
+        @Override
+        public int countUsers() {
+            return KEYS;
+        }
+    }
+}
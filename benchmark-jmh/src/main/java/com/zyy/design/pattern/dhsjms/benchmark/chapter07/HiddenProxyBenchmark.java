@@ -0,0 +1,131 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter07;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.MethodHandleInvocationHandler;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden.HiddenProxyFactory;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden.Interceptor;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第7章 demojdk：隐藏类代理与 JDK 代理
+ *
+ * call*：addUser + deleteUser 各调用一次，两种代理都在调用前后各累加一次计数；
+ * create*：创建一个代理对象（代理类都已经生成并缓存）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HiddenProxyBenchmark {
+
+    private Users target;
+    private CountingInterceptor interceptor;
+    private HiddenProxyFactory factory;
+    private UserService jdkProxy;
+    private UserService hiddenProxy;
+    private String username;
+
+    @Setup
+    public void setup() {
+        target = new Users();
+        interceptor = new CountingInterceptor();
+        factory = new HiddenProxyFactory();
+        jdkProxy = createJdkProxy();
+        hiddenProxy = createHiddenProxy();
+        username = "张三";
+    }
+
+    @Benchmark
+    public int callDirect() {
+        UserService service = target;
+        service.addUser(username);
+        service.deleteUser(username);
+        return target.count;
+    }
+
+    @Benchmark
+    public int callJdkProxy() {
+        jdkProxy.addUser(username);
+        jdkProxy.deleteUser(username);
+        return target.count;
+    }
+
+    @Benchmark
+    public int callHiddenProxy() {
+        hiddenProxy.addUser(username);
+        hiddenProxy.deleteUser(username);
+        return target.count;
+    }
+
+    @Benchmark
+    public UserService createJdkProxy() {
+        InvocationHandler handler = new MethodHandleInvocationHandler(target) {
+            @Override
+            protected void before(Method method, Object[] args) {
+                interceptor.before(method);
+            }
+
+            @Override
+            protected void after(Method method, Object result) {
+                interceptor.after(method);
+            }
+        };
+        return (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(),
+                new Class<?>[]{UserService.class}, handler);
+    }
+
+    @Benchmark
+    public UserService createHiddenProxy() {
+        return factory.create(UserService.class, target, interceptor);
+    }
+
+    /**
+     * 不打印的 UserService，只记录调用次数
+     */
+    private static final class Users implements UserService {
+        private int count;
+        private String last;
+
+        @Override
+        public void addUser(String username) {
+            count++;
+            last = username;
+        }
+
+        @Override
+        public void deleteUser(String username) {
+            count--;
+            last = username;
+        }
+    }
+
+    public static final class CountingInterceptor implements Interceptor {
+        private long calls;
+
+        @Override
+        public void before(Method method) {
+            calls++;
+        }
+
+        @Override
+        public void after(Method method) {
+            calls++;
+        }
+    }
+}
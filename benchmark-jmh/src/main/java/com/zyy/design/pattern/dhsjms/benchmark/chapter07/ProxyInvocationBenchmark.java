@@ -0,0 +1,155 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter07;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.Invoker;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.Invokers;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.MethodHandleInvocationHandler;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 第7章 demojdk：UserService.addUser + deleteUser 一次各调用一次的耗时
+ *
+ * direct：直接调用；methodInvoke / methodHandle / invoker：不经过代理，分别用 Method.invoke、缓存的 MethodHandle
+ * 和 Invokers 生成的调用器；
+ * reflectiveProxy：JDK 代理 + 每次 method.invoke 的 InvocationHandler（即 UserServiceInvocationHandler 去掉打印）；
+ * methodHandleProxy：JDK 代理 + MethodHandleInvocationHandler
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProxyInvocationBenchmark {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private Users target;
+    private UserService reflectiveProxy;
+    private UserService methodHandleProxy;
+    private Method addUser;
+    private Method deleteUser;
+    private MethodHandle addUserHandle;
+    private MethodHandle deleteUserHandle;
+    private Invoker addUserInvoker;
+    private Invoker deleteUserInvoker;
+    private String username;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        target = new Users();
+        reflectiveProxy = proxy(new ReflectiveHandler(target));
+        methodHandleProxy = proxy(new MethodHandleInvocationHandler(target));
+        addUser = UserService.class.getMethod("addUser", String.class);
+        deleteUser = UserService.class.getMethod("deleteUser", String.class);
+        addUserHandle = spread(addUser);
+        deleteUserHandle = spread(deleteUser);
+        addUserInvoker = Invokers.of(addUser);
+        deleteUserInvoker = Invokers.of(deleteUser);
+        username = "张三";
+    }
+
+    @Benchmark
+    public int direct() {
+        UserService service = target;
+        service.addUser(username);
+        service.deleteUser(username);
+        return target.count;
+    }
+
+    @Benchmark
+    public int methodInvoke() throws ReflectiveOperationException {
+        addUser.invoke(target, username);
+        deleteUser.invoke(target, username);
+        return target.count;
+    }
+
+    @Benchmark
+    public int methodHandle() throws Throwable {
+        Object ignored = (Object) addUserHandle.invokeExact(new Object[]{username});
+        ignored = (Object) deleteUserHandle.invokeExact(new Object[]{username});
+        return target.count;
+    }
+
+    @Benchmark
+    public int invoker() throws Throwable {
+        addUserInvoker.invoke(target, new Object[]{username});
+        deleteUserInvoker.invoke(target, new Object[]{username});
+        return target.count;
+    }
+
+    @Benchmark
+    public int reflectiveProxy() {
+        reflectiveProxy.addUser(username);
+        reflectiveProxy.deleteUser(username);
+        return target.count;
+    }
+
+    @Benchmark
+    public int methodHandleProxy() {
+        methodHandleProxy.addUser(username);
+        methodHandleProxy.deleteUser(username);
+        return target.count;
+    }
+
+    private MethodHandle spread(Method method) throws IllegalAccessException {
+        return MethodHandles.publicLookup().unreflect(method).bindTo(target)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(INVOKER_TYPE);
+    }
+
+    private static UserService proxy(InvocationHandler handler) {
+        return (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(),
+                new Class<?>[]{UserService.class}, handler);
+    }
+
+    /**
+     * 不打印的 UserService，只记录调用次数
+     */
+    private static final class Users implements UserService {
+        private int count;
+        private String last;
+
+        @Override
+        public void addUser(String username) {
+            count++;
+            last = username;
+        }
+
+        @Override
+        public void deleteUser(String username) {
+            count--;
+            last = username;
+        }
+    }
+
+    private static final class ReflectiveHandler implements InvocationHandler {
+        private final Object target;
+
+        private ReflectiveHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return method.invoke(target, args);
+        }
+    }
+}
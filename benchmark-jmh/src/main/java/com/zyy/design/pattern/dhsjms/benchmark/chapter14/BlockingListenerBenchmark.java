@@ -0,0 +1,115 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter14;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.ExecutorDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.OrderEventDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.VirtualThreadDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 第14章 阻塞型观察者的分发吞吐量：两个观察者处理每个事件都阻塞 latencyMillis 毫秒（模拟调用短信、物流接口），
+ * 每次调用发布一批「待发货→已发货」事件并等待全部处理完，结果为每秒处理的事件数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingListenerBenchmark {
+
+    private static final int EVENTS = 500;
+    private static final int LISTENERS = 2;
+
+    public enum DispatchMode {
+        // 原来的 5 线程线程池
+        FIXED_POOL,
+        // 每次观察者调用一个虚拟线程
+        VIRTUAL_THREAD
+    }
+
+    @Param({"FIXED_POOL", "VIRTUAL_THREAD"})
+    public DispatchMode mode;
+
+    @Param({"1", "5"})
+    public long latencyMillis;
+
+    // 虚拟线程模式下每个观察者的并发限制
+    @Param({"256"})
+    public int permits;
+
+    private OrderEventDispatcher dispatcher;
+    private ListenerRegistry registry;
+    private OrderStatusEvent[] events;
+    private final AtomicLong handled = new AtomicLong();
+    private long target;
+
+    @Setup
+    public void setup() {
+        dispatcher = mode == DispatchMode.FIXED_POOL ? new ExecutorDispatcher() : new VirtualThreadDispatcher(permits);
+        registry = new ListenerRegistry();
+        for (int i = 0; i < LISTENERS; i++) {
+            registry.register(new SlowListener(latencyMillis, handled));
+        }
+        events = new OrderStatusEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = new OrderStatusEvent("ORDER-" + i, OrderStatus.PENDING_DELIVERY, OrderStatus.DELIVERED, "USER-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void publishAndDrain() throws InterruptedException {
+        target += (long) EVENTS * LISTENERS;
+        for (OrderStatusEvent event : events) {
+            dispatcher.dispatch(event, registry);
+        }
+        while (handled.get() < target) {
+            Thread.sleep(0, 100_000);
+        }
+    }
+
+    private static final class SlowListener implements OrderStatusListener {
+        private final long latencyMillis;
+        private final AtomicLong handled;
+
+        private SlowListener(long latencyMillis, AtomicLong handled) {
+            this.latencyMillis = latencyMillis;
+            this.handled = handled;
+        }
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handled.incrementAndGet();
+        }
+    }
+
+}
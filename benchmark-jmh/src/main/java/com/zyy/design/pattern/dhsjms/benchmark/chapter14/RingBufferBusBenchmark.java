@@ -0,0 +1,88 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter14;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.ExecutorDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.OrderEventDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.RingBufferEventBus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.WaitStrategy;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 第14章 事件总线吞吐量：线程池与环形缓冲区（三种等待策略）
+ * 每次调用按字段发布一批事件并等待全部分发完，结果为每秒分发的事件数；加上 -prof gc 可以看到每个事件的内存分配
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RingBufferBusBenchmark {
+
+    private static final int EVENTS = 4096;
+    private static final int ORDERS = 1024;
+
+    // EXECUTOR 为原来的 5 线程线程池，其余为环形缓冲区的等待策略
+    @Param({"EXECUTOR", "BUSY_SPIN", "YIELD", "PARK"})
+    public String bus;
+
+    private OrderEventDispatcher dispatcher;
+    private ListenerRegistry registry;
+    private String[] orderIds;
+    private final AtomicLong handled = new AtomicLong();
+    private long target;
+
+    @Setup
+    public void setup() {
+        dispatcher = "EXECUTOR".equals(bus)
+                ? new ExecutorDispatcher()
+                : new RingBufferEventBus(1 << 14, WaitStrategy.valueOf(bus));
+        registry = new ListenerRegistry();
+        registry.register(new OrderStatusListener() {
+            @Override
+            public void onOrderStatusChange(OrderStatusEvent event) {
+                handled.incrementAndGet();
+            }
+        });
+        orderIds = new String[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds[i] = "ORDER-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void publishAndDrain() {
+        target += EVENTS;
+        for (int i = 0; i < EVENTS; i++) {
+            dispatcher.publish(orderIds[i & (ORDERS - 1)], OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, "USER-1", registry);
+        }
+        while (handled.get() < target) {
+            Thread.yield();
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter14;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.ExecutorDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.OrderEventDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.StripedDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 第14章 订单事件分发吞吐量：每次调用发布一批事件并等待全部分发完，结果为每秒分发的事件数
+ * stripes 为条带数，0 表示原来的 5 线程线程池，作为对照
+ *
+ * hot=true 时一半事件属于同一个热点订单并且最后发布，coldLanes 测量其余订单的事件全部分发完的平均耗时：
+ * 条带数大于工作线程数时（工作线程数为条带数与 CPU 核数中的较小值），热点条带如果一直占着工作线程，
+ * 排在它后面的条带只能等它分发完
+ * （与热点订单同条带的其他订单先于热点事件发布，它们的耗时不受热点事件影响）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StripedDispatchBenchmark {
+
+    private static final int EVENTS = 4096;
+    private static final int ORDERS = 1024;
+    private static final String HOT_ORDER = "ORDER-HOT";
+
+    @Param({"0", "1", "4", "16", "64"})
+    public int stripes;
+
+    // 观察者每处理一个事件消耗的 CPU（Blackhole.consumeCPU 的参数）
+    @Param({"200"})
+    public long work;
+
+    @Param({"false", "true"})
+    public boolean hot;
+
+    private OrderEventDispatcher dispatcher;
+    private ListenerRegistry registry;
+    private OrderStatusEvent[] events;
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong coldHandled = new AtomicLong();
+    private long target;
+    private long coldTarget;
+    private int coldEvents;
+
+    @Setup
+    public void setup() {
+        dispatcher = stripes == 0 ? new ExecutorDispatcher() : new StripedDispatcher(stripes);
+        registry = new ListenerRegistry();
+        long tokens = work;
+        registry.register(new OrderStatusListener() {
+            @Override
+            public void onOrderStatusChange(OrderStatusEvent event) {
+                Blackhole.consumeCPU(tokens);
+                if (!HOT_ORDER.equals(event.getOrderId())) {
+                    coldHandled.incrementAndGet();
+                }
+                handled.incrementAndGet();
+            }
+        });
+        OrderStatus[] statuses = OrderStatus.values();
+        events = new OrderStatusEvent[EVENTS];
+        int hotEvents = hot ? EVENTS / 2 : 0;
+        coldEvents = EVENTS - hotEvents;
+        for (int i = 0; i < EVENTS; i++) {
+            int order = i % ORDERS;
+            int step = i / ORDERS % (statuses.length - 1);
+            String orderId = i >= coldEvents ? HOT_ORDER : "ORDER-" + order;
+            events[i] = new OrderStatusEvent(orderId, statuses[step], statuses[step + 1], "USER-" + order);
+        }
+    }
+
+    // 上一次调用留下的事件（coldLanes 不等热点订单）分发完再开始计时
+    @Setup(Level.Invocation)
+    public void settle() {
+        while (handled.get() < target) {
+            Thread.yield();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void publishAndDrain() {
+        target += EVENTS;
+        for (OrderStatusEvent event : events) {
+            dispatcher.dispatch(event, registry);
+        }
+        while (handled.get() < target) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void coldLanes() {
+        target += EVENTS;
+        coldTarget += coldEvents;
+        for (OrderStatusEvent event : events) {
+            dispatcher.dispatch(event, registry);
+        }
+        while (coldHandled.get() < coldTarget) {
+            Thread.yield();
+        }
+    }
+
+}
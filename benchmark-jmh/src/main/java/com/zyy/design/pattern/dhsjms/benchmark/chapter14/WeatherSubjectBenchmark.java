@@ -0,0 +1,150 @@
+package com.zyy.design.pattern.dhsjms.benchmark.chapter14;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo01.ConflatingSubject;
+import com.zyy.design.pattern.dhsjms.chapter14.demo01.SensorObserver;
+import com.zyy.design.pattern.dhsjms.chapter14.demo01.WeatherReading;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 第14章 天气读数的发布吞吐量：java.util.Observable 与 ConflatingSubject
+ * 结果为每秒能发布的读数，高于 1,000,000 即能承受每秒一百万次上报；
+ * slowWork 大于 0 时额外挂一个慢观察者，Observable 在发布线程中同步调用它，ConflatingSubject 在单独的线程中合并调用
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class WeatherSubjectBenchmark {
+
+    private static final int READINGS = 1024;
+
+    public enum SubjectType {
+        // 原来的 java.util.Observable：每次通知加锁，观察者保存在 Vector 中
+        OBSERVABLE,
+        // 不加锁、合并通知的 ConflatingSubject
+        CONFLATING
+    }
+
+    @Param({"OBSERVABLE", "CONFLATING"})
+    public SubjectType subject;
+
+    // 在发布线程中执行的快观察者数量
+    @Param({"1", "4"})
+    public int observers;
+
+    // 慢观察者处理每个读数消耗的 CPU（Blackhole.consumeCPU 的参数），0 表示没有慢观察者
+    @Param({"0", "1000"})
+    public long slowWork;
+
+    private ObservableStation observable;
+    private ConflatingSubject<WeatherReading> conflating;
+    private ExecutorService slowThread;
+    // ConflatingSubject 只弱引用观察者，由基准测试持有强引用
+    private final List<SensorObserver<WeatherReading>> retained = new ArrayList<>();
+    private WeatherReading[] readings;
+
+    @Setup
+    public void setup() {
+        readings = new WeatherReading[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            readings[i] = new WeatherReading(i + 1, 20 + i % 10, 0.5, 1013.25);
+        }
+        if (subject == SubjectType.OBSERVABLE) {
+            observable = new ObservableStation();
+            // 每个快观察者写自己的计数器：多个发布线程同时通知时不共享同一个 Blackhole，LongAdder 按线程分散写入
+            for (int i = 0; i < observers; i++) {
+                LongAdder sink = new LongAdder();
+                observable.addObserver((o, arg) -> sink.increment());
+            }
+            if (slowWork > 0) {
+                observable.addObserver((o, arg) -> Blackhole.consumeCPU(slowWork));
+            }
+        } else {
+            conflating = new ConflatingSubject<>();
+            for (int i = 0; i < observers; i++) {
+                LongAdder sink = new LongAdder();
+                SensorObserver<WeatherReading> observer = reading -> sink.increment();
+                retained.add(observer);
+                conflating.subscribe(observer);
+            }
+            if (slowWork > 0) {
+                slowThread = Executors.newSingleThreadExecutor();
+                SensorObserver<WeatherReading> observer = reading -> Blackhole.consumeCPU(slowWork);
+                retained.add(observer);
+                conflating.subscribe(observer, slowThread);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (slowThread != null) {
+            slowThread.shutdownNow();
+        }
+    }
+
+    /**
+     * 每个发布线程自己的读数下标，多个线程之间不共享计数器
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        private int next() {
+            return next++ & (READINGS - 1);
+        }
+    }
+
+    @Benchmark
+    public void publish(Cursor cursor) {
+        publishNext(cursor);
+    }
+
+    // 4 个线程同时上报，Observable 的锁会成为瓶颈
+    @Benchmark
+    @Threads(4)
+    public void publishConcurrent(Cursor cursor) {
+        publishNext(cursor);
+    }
+
+    private void publishNext(Cursor cursor) {
+        WeatherReading reading = readings[cursor.next()];
+        if (observable != null) {
+            observable.publish(reading);
+        } else {
+            conflating.publish(reading);
+        }
+    }
+
+    private static final class ObservableStation extends Observable {
+        private void publish(WeatherReading reading) {
+            setChanged();
+            notifyObservers(reading);
+        }
+    }
+
+}
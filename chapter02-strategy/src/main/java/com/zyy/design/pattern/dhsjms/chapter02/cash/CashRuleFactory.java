@@ -0,0 +1,17 @@
+package com.zyy.design.pattern.dhsjms.chapter02.cash;
+
+/**
+ * 把解析出的促销规则创建成具体的收费策略，demo02、demo03 各有一套收费策略类，各自实现
+ */
+public interface CashRuleFactory<S> {
+
+    // 正常收费
+    S normal();
+
+    // 打折，rebate 为折扣率，0.8 表示 8 折
+    S rebate(double rebate);
+
+    // 满 condition 返 ret
+    S cashReturn(double condition, double ret);
+
+}
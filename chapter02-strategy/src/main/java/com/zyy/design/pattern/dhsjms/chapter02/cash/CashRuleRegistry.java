@@ -0,0 +1,203 @@
+package com.zyy.design.pattern.dhsjms.chapter02.cash;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 促销规则注册表：从配置文件解析促销规则，每条规则只创建一个不可变的收费策略，所有收银线程共享
+ *
+ * 配置文件每行一条规则，格式为「名称=表达式」，名称与表达式相同时可以只写表达式，# 开头为注释。
+ * 表达式支持：正常收费、N折（8折、9.5折、85折）、满X减Y / 满X返Y。
+ * 查找是一次 HashMap 读取，不加锁也不创建对象；重新加载时先在后台解析出新的规则表，再整体替换引用，
+ * 正在结算的线程不会被阻塞，要么看到旧规则表，要么看到新规则表。
+ * 具体的收费策略由 {@link CashRuleFactory} 创建，demo02、demo03 共用同一份解析逻辑
+ */
+public final class CashRuleRegistry<S> {
+
+    // 默认配置文件（类路径），可以用 -Dcash.rules.file=路径 指定外部文件
+    public static final String DEFAULT_RESOURCE = "/cash-rules.txt";
+    public static final String RULES_FILE_PROPERTY = "cash.rules.file";
+    // 未配置的规则按正常收费处理
+    public static final String NORMAL_RULE = "正常收费";
+
+    private static final Pattern REBATE = Pattern.compile("(\\d+(?:\\.\\d+)?)折");
+    private static final Pattern RETURN = Pattern.compile("满(\\d+(?:\\.\\d+)?)[减返](\\d+(?:\\.\\d+)?)");
+
+    private final CashRuleFactory<S> factory;
+    private final S normal;
+
+    private volatile Rules<S> rules = new Rules<>(Map.of(), List.of(), Map.of());
+
+    public CashRuleRegistry(CashRuleFactory<S> factory) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.normal = factory.normal();
+    }
+
+    /**
+     * 创建注册表并加载默认配置文件
+     */
+    public static <S> CashRuleRegistry<S> loadDefault(CashRuleFactory<S> factory) {
+        CashRuleRegistry<S> registry = new CashRuleRegistry<>(factory);
+        registry.loadDefault();
+        return registry;
+    }
+
+    /**
+     * 按名称查找收费策略，不存在时返回正常收费
+     */
+    public S lookup(String name) {
+        S strategy = name == null ? null : rules.byName.get(name);
+        return strategy != null ? strategy : normal;
+    }
+
+    public boolean contains(String name) {
+        return rules.byName.containsKey(name);
+    }
+
+    /**
+     * 按配置文件中的顺序返回所有规则名称
+     */
+    public List<String> names() {
+        return rules.names;
+    }
+
+    /**
+     * 当前规则表的只读快照
+     */
+    public Map<String, S> snapshot() {
+        return rules.byName;
+    }
+
+    public void reload(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reload(reader);
+        }
+    }
+
+    /**
+     * 解析新的规则并整体替换，解析失败时保留原规则表
+     */
+    public void reload(Reader reader) throws IOException {
+        Rules<S> current = rules;
+        Map<String, String> expressions = read(reader);
+        Map<String, S> byName = new LinkedHashMap<>();
+        Map<String, S> byExpression = new HashMap<>();
+        for (Map.Entry<String, String> entry : expressions.entrySet()) {
+            String expression = entry.getValue();
+            // 表达式相同的规则共用同一个策略对象，重新加载时尽量沿用旧对象
+            S strategy = byExpression.get(expression);
+            if (strategy == null) {
+                strategy = current.byExpression.get(expression);
+            }
+            if (strategy == null) {
+                strategy = parse(expression);
+            }
+            byExpression.put(expression, strategy);
+            byName.put(entry.getKey(), strategy);
+        }
+        rules = new Rules<>(Map.copyOf(byName), List.copyOf(byName.keySet()), Map.copyOf(byExpression));
+    }
+
+    /**
+     * 解析一条规则表达式
+     * @throws IllegalArgumentException 表达式无法识别
+     */
+    public S parse(String expression) {
+        String text = expression.trim();
+        if (NORMAL_RULE.equals(text) || "原价".equals(text)) {
+            return normal;
+        }
+        Matcher matcher = REBATE.matcher(text);
+        if (matcher.matches()) {
+            BigDecimal value = new BigDecimal(matcher.group(1));
+            // 8折、9.5折、10折 表示十分之几，85折 表示百分之八十五
+            BigDecimal rebate = value.compareTo(BigDecimal.TEN) <= 0 ? value.movePointLeft(1) : value.movePointLeft(2);
+            if (rebate.signum() <= 0 || rebate.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("折扣超出范围：" + expression);
+            }
+            return factory.rebate(rebate.doubleValue());
+        }
+        matcher = RETURN.matcher(text);
+        if (matcher.matches()) {
+            double condition = Double.parseDouble(matcher.group(1));
+            double ret = Double.parseDouble(matcher.group(2));
+            if (condition <= 0) {
+                throw new IllegalArgumentException("满减条件必须大于 0：" + expression);
+            }
+            return factory.cashReturn(condition, ret);
+        }
+        throw new IllegalArgumentException("无法识别的促销规则：" + expression);
+    }
+
+    private void loadDefault() {
+        try {
+            String file = System.getProperty(RULES_FILE_PROPERTY);
+            if (file != null) {
+                reload(Paths.get(file));
+                return;
+            }
+            InputStream in = CashRuleRegistry.class.getResourceAsStream(DEFAULT_RESOURCE);
+            if (in == null) {
+                throw new IllegalStateException("找不到促销规则配置：" + DEFAULT_RESOURCE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                reload(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载促销规则失败", e);
+        }
+    }
+
+    private static Map<String, String> read(Reader reader) throws IOException {
+        Map<String, String> expressions = new LinkedHashMap<>();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int split = line.indexOf('=');
+            String name = split < 0 ? line : line.substring(0, split).trim();
+            String expression = split < 0 ? line : line.substring(split + 1).trim();
+            if (name.isEmpty() || expression.isEmpty()) {
+                throw new IllegalArgumentException("第 " + lineNumber + " 行格式错误：" + line);
+            }
+            expressions.put(name, expression);
+        }
+        return expressions;
+    }
+
+    /**
+     * 不可变的规则表，重新加载时整体替换
+     */
+    private static final class Rules<S> {
+        private final Map<String, S> byName;
+        private final List<String> names;
+        private final Map<String, S> byExpression;
+
+        private Rules(Map<String, S> byName, List<String> names, Map<String, S> byExpression) {
+            this.byName = byName;
+            this.names = names;
+            this.byExpression = byExpression;
+        }
+    }
+}
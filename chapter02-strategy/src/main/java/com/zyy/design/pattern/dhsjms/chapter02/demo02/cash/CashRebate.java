@@ -2,7 +2,7 @@ package com.zyy.design.pattern.dhsjms.chapter02.demo02.cash;
 
 public class CashRebate extends CashSuper {
 
-    private double moneyRebate = 1D;
+    private final double moneyRebate;
 
     public CashRebate(double moneyRebate) {
         this.moneyRebate = moneyRebate;
@@ -2,9 +2,9 @@ package com.zyy.design.pattern.dhsjms.chapter02.demo02.cash;
 
 public class CashReturn extends CashSuper {
 
-    private double moneyCondition = 0D;
+    private final double moneyCondition;
 
-    private double moneyReturn = 0D;
+    private final double moneyReturn;
 
     public CashReturn(double moneyCondition, double moneyReturn) {
         this.moneyCondition = moneyCondition;
@@ -0,0 +1,60 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashContext;
+
+import java.util.Random;
+
+/**
+ * 批量结算吞吐量对比：逐个 payOrder 与一次 payOrders
+ * 运行参数可以指定商品行数，默认 4,000,000 行
+ */
+public class CashBulkBenchmark {
+
+    private static final String[] DISCOUNTS = {"正常收费", "8折", "满200减30"};
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        double[] moneys = new double[lines];
+        double[] results = new double[lines];
+        Random random = new Random(42);
+        for (int i = 0; i < lines; i++) {
+            moneys[i] = Math.round(random.nextDouble() * 100000) / 100D;
+        }
+
+        for (String discount : DISCOUNTS) {
+            CashContext context = new CashContext(discount);
+            // 预热，让两条路径都完成 JIT 编译
+            for (int i = 0; i < 3; i++) {
+                perCall(context, moneys, results);
+                context.payOrders(moneys, results);
+            }
+
+            long perCallNanos = 0L;
+            long bulkNanos = 0L;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                perCall(context, moneys, results);
+                perCallNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                context.payOrders(moneys, results);
+                bulkNanos += System.nanoTime() - start;
+            }
+            System.out.printf("%-8s 逐个调用：%8.1f 百万行/秒   批量调用：%8.1f 百万行/秒%n",
+                    discount, throughput(lines, perCallNanos), throughput(lines, bulkNanos));
+        }
+    }
+
+    private static void perCall(CashContext context, double[] moneys, double[] results) {
+        for (int i = 0; i < moneys.length; i++) {
+            results[i] = context.payOrder(moneys[i]);
+        }
+    }
+
+    private static double throughput(int lines, long nanos) {
+        return (double) lines * ROUNDS / nanos * 1000D;
+    }
+
+}
@@ -1,13 +1,23 @@
 package com.zyy.design.pattern.dhsjms.chapter02.demo03;
 
+import com.zyy.design.pattern.dhsjms.chapter02.cash.CashRuleRegistry;
 import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashContext;
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashRules;
+import com.zyy.design.pattern.dhsjms.chapter02.ledger.Ledger;
+import com.zyy.design.pattern.dhsjms.chapter02.ledger.LedgerEntry;
+import com.zyy.design.pattern.dhsjms.chapter02.ledger.PricedItem;
+import com.zyy.design.pattern.dhsjms.chapter02.ledger.ScanIngestor;
+import com.zyy.design.pattern.dhsjms.chapter02.ledger.SimulatedScanner;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 
+import java.util.List;
+
 import static java.lang.String.format;
 
 /**
@@ -18,18 +28,23 @@ import static java.lang.String.format;
  */
 public class CashierSystem extends Application {
 
+    // 模拟扫码一次扫入的商品数
+    private static final int SCAN_BURST = 2000;
+
     // 基础输入组件
     private TextField priceField;
     private TextField quantityField;
-    // 明细和总价展示组件
-    private TextArea detailTextArea;
+    // 明细和总价展示组件（ListView 只渲染可见的行）
+    private ListView<LedgerEntry> detailListView;
     private Label totalPriceLabel;
+    // 输入错误提示
+    private Label messageLabel;
     // 折扣下拉框
     private ComboBox<String> discountComboBox;
-    // 累计总价（全局变量）
-    private double totalProfit = 0.0;
-    // 商品序号
-    private int productIndex = 1;
+    // 账本：商品明细、序号和累计总价
+    private final Ledger ledger = new Ledger();
+    // 扫码枪录入通道：后台计算应收，每个脉冲最多更新一次界面
+    private ScanIngestor scanIngestor;
 
     @Override
     public void start(Stage primaryStage) {
@@ -60,16 +75,10 @@ public class CashierSystem extends Application {
         GridPane.setConstraints(discountLabel, 0, 2);
         // 初始化折扣下拉框
         discountComboBox = new ComboBox<>();
-        // 添加折扣选项（值与展示文本一致，也可自定义键值对）
-        discountComboBox.getItems().addAll(
-                "正常收费",
-                "9折",
-                "8折",
-                "满100减10",
-                "满200减30"
-        );
+        // 添加折扣选项（来自促销规则配置文件，新增促销无需重新编译）
+        discountComboBox.getItems().addAll(CashRules.getDefault().names());
         // 设置默认选中项
-        discountComboBox.setValue("正常收费");
+        discountComboBox.setValue(CashRuleRegistry.NORMAL_RULE);
         // 设置下拉框宽度，适配内容
         discountComboBox.setPrefWidth(150);
         GridPane.setConstraints(discountComboBox, 1, 2);
@@ -80,18 +89,30 @@ public class CashierSystem extends Application {
         confirmBtn.setOnAction(e -> addProductDetail());
 
         Button resetBtn = new Button("重置");
-        GridPane.setConstraints(resetBtn, 1, 3);
         resetBtn.setOnAction(e -> resetAll());
 
+        // 模拟扫码枪连续扫入一批商品，计价在后台线程完成
+        Button scanBtn = new Button("模拟扫码 " + SCAN_BURST + " 件");
+        scanBtn.setOnAction(e -> SimulatedScanner.startBurst(this::scan, discountComboBox.getItems(), SCAN_BURST));
+        HBox actions = new HBox(10, resetBtn, scanBtn);
+        GridPane.setConstraints(actions, 1, 3);
+
         // 5. 商品明细区域（只读）
         Label detailLabel = new Label("商品明细：");
         GridPane.setConstraints(detailLabel, 0, 4);
-        detailTextArea = new TextArea();
-        detailTextArea.setPrefRowCount(8);
-        detailTextArea.setPrefColumnCount(40);
-        detailTextArea.setEditable(false);
-        detailTextArea.setPromptText("添加商品后，明细将显示在这里（包含折扣计算）...");
-        GridPane.setConstraints(detailTextArea, 0, 5, 2, 1); // 跨2列
+        detailListView = new ListView<>(ledger.getEntries());
+        detailListView.setPrefHeight(180);
+        detailListView.setPrefWidth(460);
+        detailListView.setPlaceholder(new Label("添加商品后，明细将显示在这里（包含折扣计算）..."));
+        // 单元格只在滚动到可见区域时才格式化明细文本
+        detailListView.setCellFactory(listView -> new ListCell<>() {
+            @Override
+            protected void updateItem(LedgerEntry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                setText(empty || entry == null ? null : entry.format());
+            }
+        });
+        GridPane.setConstraints(detailListView, 0, 5, 2, 1); // 跨2列
 
         // 6. 累计总价区域
         Label totalLabel = new Label("累计总价：");
@@ -100,18 +121,59 @@ public class CashierSystem extends Application {
         totalPriceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px; -fx-text-fill: #2e8b57;");
         GridPane.setConstraints(totalPriceLabel, 1, 6);
 
+        // 7. 错误提示区域
+        messageLabel = new Label();
+        messageLabel.setStyle("-fx-text-fill: #cc0000;");
+        GridPane.setConstraints(messageLabel, 0, 7, 2, 1);
+
         // 添加所有组件到布局
         grid.getChildren().addAll(
                 priceLabel, priceField, quantityLabel, quantityField,
-                discountLabel, discountComboBox, confirmBtn, resetBtn,
-                detailLabel, detailTextArea, totalLabel, totalPriceLabel
+                discountLabel, discountComboBox, confirmBtn, actions,
+                detailLabel, detailListView, totalLabel, totalPriceLabel, messageLabel
         );
 
         // 场景和窗口设置
-        Scene scene = new Scene(grid, 500, 450);
+        Scene scene = new Scene(grid, 500, 480);
         primaryStage.setScene(scene);
         primaryStage.setResizable(false);
         primaryStage.show();
+
+        // 8. 启动扫码枪录入通道
+        scanIngestor = new ScanIngestor((discount, money) -> new CashContext(discount).payOrder(money),
+                this::applyScanned, this::applyFailed);
+        scanIngestor.start();
+    }
+
+    @Override
+    public void stop() {
+        if (scanIngestor != null) {
+            scanIngestor.stop();
+        }
+    }
+
+    /**
+     * 扫码枪录入一件商品，可以在任意线程调用，计价在后台线程完成
+     */
+    public void scan(double price, int num, String discount) {
+        scanIngestor.submit(price, num, discount);
+    }
+
+    /**
+     * 把一个脉冲内计算好的商品一次性记账，并只刷新一次明细和总价（在 JavaFX 线程中调用）
+     */
+    private void applyScanned(List<PricedItem> items) {
+        ledger.addAll(items);
+        detailListView.scrollTo(ledger.size() - 1);
+        totalPriceLabel.setText(format("%.2f 元", ledger.getTotal()));
+    }
+
+    /**
+     * 显示一个脉冲内计价失败的商品（在 JavaFX 线程中调用）
+     */
+    private void applyFailed(List<String> failures) {
+        messageLabel.setText(failures.size() == 1 ? "❌ " + failures.get(0)
+                : format("❌ %d 件商品计价失败，例如：%s", failures.size(), failures.get(0)));
     }
 
     /**
@@ -123,25 +185,20 @@ public class CashierSystem extends Application {
             double price = Double.parseDouble(priceField.getText().trim());
             int num = Integer.parseInt(quantityField.getText().trim());
 
-            // 2. 计算原始小计（无折扣）
-            double originalSubtotal = price * num;
-            // 3. 获取下拉框选中的折扣，计算最终小计
+            // 2. 获取下拉框选中的折扣，计算最终小计
             String selectedDiscount = discountComboBox.getValue();
             CashContext context = new CashContext(selectedDiscount);
             double finalSubtotal = context.payOrder(price * num);
 
-            // 4. 拼接明细（包含折扣计算过程）
-            String detail = format("✅ 商品%d: ", productIndex++) +
-                    format("   单价: %.2f 数量: %d  费用: %.2f元", price, num, originalSubtotal) +
-                    format("   %s", selectedDiscount) +
-                    format("   应收：%.2f元\n", finalSubtotal);
+            // 3. 记账（原始小计由明细计算，明细文本在显示时才格式化）
+            ledger.add(price, num, selectedDiscount, finalSubtotal);
 
-            // 5. 更新明细和总价
-            detailTextArea.appendText(detail);
-            totalProfit += finalSubtotal;
-            totalPriceLabel.setText(format("%.2f 元", totalProfit));
+            // 4. 更新明细和总价
+            detailListView.scrollTo(ledger.size() - 1);
+            totalPriceLabel.setText(format("%.2f 元", ledger.getTotal()));
+            messageLabel.setText("");
 
-            // 6. 清空输入框（保留折扣选中状态，方便连续添加同折扣商品）
+            // 5. 清空输入框（保留折扣选中状态，方便连续添加同折扣商品）
             priceField.clear();
             quantityField.clear();
             priceField.requestFocus();
@@ -158,12 +215,10 @@ public class CashierSystem extends Application {
         // 清空输入框
         priceField.clear();
         quantityField.clear();
-        // 清空明细文本域
-        detailTextArea.clear();
-        detailTextArea.setPromptText("添加商品后，明细将显示在这里（包含折扣计算）...");
-        // 重置总价和商品序号
-        totalProfit = 0.0;
-        productIndex = 1;
+        // 丢弃扫码通道中还没交给界面的商品，再清空账本（明细、总价和商品序号）
+        scanIngestor.clear();
+        ledger.clear();
+        messageLabel.setText("");
         // 重置总价标签
         totalPriceLabel.setText("0.00 元");
         // 重置折扣下拉框为默认值
@@ -173,10 +228,10 @@ public class CashierSystem extends Application {
     }
 
     /**
-     * 辅助方法：更新明细区域显示错误提示
+     * 辅助方法：显示错误提示
      */
     private void updateDetailWithError(String errorMsg) {
-        detailTextArea.appendText(errorMsg + "\n");
+        messageLabel.setText(errorMsg);
         // 清空输入框，方便重新输入
         priceField.clear();
         quantityField.clear();
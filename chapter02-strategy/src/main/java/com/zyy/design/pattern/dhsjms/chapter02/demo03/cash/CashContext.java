@@ -2,21 +2,23 @@ package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
 
 public class CashContext {
 
-    private CashSuper cashSuper;
+    private final CashSuper cashSuper;
 
     public CashContext(String type) {
-        this.cashSuper = switch (type) {
-            case "9折" -> new CashRebate(0.9);
-            case "8折" -> new CashRebate(0.8);
-            case "5折" -> new CashRebate(0.5);
-            case "满200减30" -> new CashReturn(200, 30);
-            case "满100减10" -> new CashReturn(100, 10);
-            default -> new CashNormal();
-        };
+        this.cashSuper = CashRules.getDefault().lookup(type);
     }
 
     public double payOrder(double money) {
         return cashSuper.acceptCash(money);
     }
 
+    /**
+     * 批量结算，按同一个收费策略把 moneys 中的原价计算后写入 results
+     * @param moneys 原价数组
+     * @param results 应收数组，长度不能小于 moneys
+     */
+    public void payOrders(double[] moneys, double[] results) {
+        cashSuper.acceptCash(moneys, results);
+    }
+
 }
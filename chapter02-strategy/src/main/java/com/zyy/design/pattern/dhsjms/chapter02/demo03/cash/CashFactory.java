@@ -2,15 +2,9 @@ package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
 
 public class CashFactory {
 
+    // 促销规则从配置文件读取，同一条规则始终返回同一个不可变的策略对象
     public static CashSuper createCashAccept(String type) {
-        return switch (type) {
-            case "9折" -> new CashRebate(0.9);
-            case "8折" -> new CashRebate(0.8);
-            case "5折" -> new CashRebate(0.5);
-            case "满200减30" -> new CashReturn(200, 30);
-            case "满100减10" -> new CashReturn(100, 10);
-            default -> new CashNormal();
-        };
+        return CashRules.getDefault().lookup(type);
     }
 
 }
@@ -1,5 +1,7 @@
 package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
 
+import java.util.Objects;
+
 public class CashNormal extends CashSuper {
 
     @Override
@@ -7,4 +9,12 @@ public class CashNormal extends CashSuper {
         return money;
     }
 
+    @Override
+    public void acceptCash(double[] moneys, int from, double[] results, int to, int length) {
+        Objects.checkFromIndexSize(from, length, moneys.length);
+        Objects.checkFromIndexSize(to, length, results.length);
+        // 原价返回，直接整段复制
+        System.arraycopy(moneys, from, results, to, length);
+    }
+
 }
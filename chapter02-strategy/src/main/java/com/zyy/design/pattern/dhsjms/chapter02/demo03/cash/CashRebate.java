@@ -1,8 +1,10 @@
 package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
 
+import java.util.Objects;
+
 public class CashRebate extends CashSuper {
 
-    private double moneyRebate = 1D;
+    private final double moneyRebate;
 
     public CashRebate(double moneyRebate) {
         this.moneyRebate = moneyRebate;
@@ -12,4 +14,15 @@ public class CashRebate extends CashSuper {
     public double acceptCash(double money) {
         return money * moneyRebate;
     }
+
+    @Override
+    public void acceptCash(double[] moneys, int from, double[] results, int to, int length) {
+        Objects.checkFromIndexSize(from, length, moneys.length);
+        Objects.checkFromIndexSize(to, length, results.length);
+        // 折扣率读到局部变量，循环体只剩乘法，JIT 可以自动向量化
+        double rebate = this.moneyRebate;
+        for (int i = 0; i < length; i++) {
+            results[to + i] = moneys[from + i] * rebate;
+        }
+    }
 }
@@ -1,10 +1,12 @@
 package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
 
+import java.util.Objects;
+
 public class CashReturn extends CashSuper {
 
-    private double moneyCondition = 0D;
+    private final double moneyCondition;
 
-    private double moneyReturn = 0D;
+    private final double moneyReturn;
 
     public CashReturn(double moneyCondition, double moneyReturn) {
         this.moneyCondition = moneyCondition;
@@ -19,4 +21,16 @@ public class CashReturn extends CashSuper {
         return money;
     }
 
+    @Override
+    public void acceptCash(double[] moneys, int from, double[] results, int to, int length) {
+        Objects.checkFromIndexSize(from, length, moneys.length);
+        Objects.checkFromIndexSize(to, length, results.length);
+        double condition = this.moneyCondition;
+        double ret = this.moneyReturn;
+        for (int i = 0; i < length; i++) {
+            double money = moneys[from + i];
+            results[to + i] = money >= condition ? money - Math.floor(money / condition) * ret : money;
+        }
+    }
+
 }
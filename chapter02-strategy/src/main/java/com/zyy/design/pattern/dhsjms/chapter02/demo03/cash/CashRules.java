@@ -0,0 +1,40 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
+
+import com.zyy.design.pattern.dhsjms.chapter02.cash.CashRuleFactory;
+import com.zyy.design.pattern.dhsjms.chapter02.cash.CashRuleRegistry;
+
+/**
+ * 本例的促销规则注册表，规则解析见 {@link CashRuleRegistry}，这里只负责创建本包的收费策略
+ */
+public final class CashRules implements CashRuleFactory<CashSuper> {
+
+    private CashRules() {
+    }
+
+    /**
+     * 默认注册表，第一次使用时加载配置文件
+     */
+    public static CashRuleRegistry<CashSuper> getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    @Override
+    public CashSuper normal() {
+        return new CashNormal();
+    }
+
+    @Override
+    public CashSuper rebate(double rebate) {
+        return new CashRebate(rebate);
+    }
+
+    @Override
+    public CashSuper cashReturn(double condition, double ret) {
+        return new CashReturn(condition, ret);
+    }
+
+    // 类加载时才读取配置文件
+    private static final class Holder {
+        private static final CashRuleRegistry<CashSuper> DEFAULT = CashRuleRegistry.loadDefault(new CashRules());
+    }
+}
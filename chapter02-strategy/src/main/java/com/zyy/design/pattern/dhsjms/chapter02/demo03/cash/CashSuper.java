@@ -1,5 +1,8 @@
 package com.zyy.design.pattern.dhsjms.chapter02.demo03.cash;
 
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+
 /**
  *
  */
@@ -12,4 +15,53 @@ public abstract class CashSuper {
      */
     public abstract double acceptCash(double money);
 
+    /**
+     * 批量收取现金，把 moneys 中的原价逐个计算后写入 results
+     * @param moneys 原价数组
+     * @param results 当前价数组，长度不能小于 moneys
+     */
+    public void acceptCash(double[] moneys, double[] results) {
+        acceptCash(moneys, 0, results, 0, moneys.length);
+    }
+
+    /**
+     * 批量收取现金，计算 moneys[from, from + length) 并写入 results[to, to + length)
+     * 默认逐个调用 {@link #acceptCash(double)}，子类可以覆盖为没有虚调用的紧凑循环，便于 JIT 向量化
+     * @param moneys 原价数组
+     * @param from 原价起始下标
+     * @param results 当前价数组
+     * @param to 当前价起始下标
+     * @param length 计算的个数
+     */
+    public void acceptCash(double[] moneys, int from, double[] results, int to, int length) {
+        Objects.checkFromIndexSize(from, length, moneys.length);
+        Objects.checkFromIndexSize(to, length, results.length);
+        for (int i = 0; i < length; i++) {
+            results[to + i] = acceptCash(moneys[from + i]);
+        }
+    }
+
+    /**
+     * 批量收取现金，计算 moneys 剩余的原价并写入 results，两个缓冲区的 position 都会前移
+     * 堆内缓冲区直接走数组版本，直接缓冲区逐个读写，都不会为每个元素分配对象
+     * @param moneys 原价缓冲区
+     * @param results 当前价缓冲区，剩余空间不能小于 moneys 的剩余元素
+     */
+    public void acceptCash(DoubleBuffer moneys, DoubleBuffer results) {
+        int length = moneys.remaining();
+        if (results.remaining() < length) {
+            throw new IllegalArgumentException("results 剩余空间不足：" + results.remaining() + " < " + length);
+        }
+        if (moneys.hasArray() && results.hasArray() && !results.isReadOnly()) {
+            acceptCash(moneys.array(), moneys.arrayOffset() + moneys.position(),
+                    results.array(), results.arrayOffset() + results.position(), length);
+            moneys.position(moneys.position() + length);
+            results.position(results.position() + length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                results.put(acceptCash(moneys.get()));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.checkout;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashFactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 批量结算：把商品行拆成固定大小的批次交给 ForkJoinPool 并行计算，再汇总总价
+ *
+ * 每行的应收先四舍五入到分，再用 long 累加，整数加法满足结合律；
+ * 拆分只取决于行数和批次大小，与线程数无关，所以任意核数下结果都完全相同
+ */
+public class BulkCheckout {
+
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    public BulkCheckout(ForkJoinPool pool) {
+        this(pool, DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkCheckout(ForkJoinPool pool, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于 0：" + batchSize);
+        }
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 结算全部商品行
+     * @return 总价（分）
+     */
+    public long settleCents(OrderLines lines) {
+        return pool.invoke(new SettleTask(lines, 0, lines.size(), batchSize));
+    }
+
+    /**
+     * 单行应收（分），与单线程收银使用同一套促销策略
+     */
+    public static long priceCents(OrderLines lines, int index) {
+        double subtotal = lines.price(index) * lines.quantity(index);
+        double finalSubtotal = CashFactory.createCashAccept(lines.discount(index)).acceptCash(subtotal);
+        return Math.round(finalSubtotal * 100D);
+    }
+
+    // 只在 ForkJoinPool 中执行，从不序列化
+    @SuppressWarnings("serial")
+    private static final class SettleTask extends RecursiveTask<Long> {
+        private final OrderLines lines;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+
+        private SettleTask(OrderLines lines, int from, int to, int batchSize) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= batchSize) {
+                long total = 0L;
+                for (int i = from; i < to; i++) {
+                    total += priceCents(lines, i);
+                }
+                return total;
+            }
+            // 对半拆分，左半部分交给其他线程，右半部分自己算
+            int middle = (from + to) >>> 1;
+            SettleTask left = new SettleTask(lines, from, middle, batchSize);
+            left.fork();
+            long right = new SettleTask(lines, middle, to, batchSize).compute();
+            return left.join() + right;
+        }
+    }
+
+}
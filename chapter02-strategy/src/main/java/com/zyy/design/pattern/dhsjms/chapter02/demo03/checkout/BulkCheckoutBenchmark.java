@@ -0,0 +1,70 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.checkout;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashRules;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 批量结算的扩展性测试：线程数从 1 开始翻倍，直到 CPU 核数，打印吞吐量、加速比和总价
+ * 运行参数可以指定商品行数，默认 20,000,000 行
+ */
+public class BulkCheckoutBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        OrderLines lines = generate(size);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Long expectedTotal = null;
+        double baseline = 0D;
+        for (int parallelism = 1; ; parallelism = Math.min(parallelism * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                BulkCheckout checkout = new BulkCheckout(pool);
+                // 预热
+                long total = checkout.settleCents(lines);
+                long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    total = checkout.settleCents(lines);
+                }
+                long nanos = System.nanoTime() - start;
+
+                if (expectedTotal == null) {
+                    expectedTotal = total;
+                } else if (expectedTotal != total) {
+                    throw new IllegalStateException("总价不一致：" + expectedTotal + " != " + total);
+                }
+                double throughput = (double) size * ROUNDS / nanos * 1000D;
+                if (parallelism == 1) {
+                    baseline = throughput;
+                }
+                System.out.printf("线程数 %3d：%8.1f 百万行/秒  加速比 %5.2f  总价 %.2f 元%n",
+                        parallelism, throughput, throughput / baseline, total / 100D);
+            } finally {
+                pool.shutdown();
+            }
+            if (parallelism == cores) {
+                break;
+            }
+        }
+    }
+
+    private static OrderLines generate(int size) {
+        List<String> discounts = CashRules.getDefault().names();
+        Random random = new Random(2024);
+        double[] prices = new double[size];
+        int[] quantities = new int[size];
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = (1 + random.nextInt(100_000)) / 100D;
+            quantities[i] = 1 + random.nextInt(10);
+            names[i] = discounts.get(random.nextInt(discounts.size()));
+        }
+        return new OrderLines(prices, quantities, names);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.checkout;
+
+/**
+ * 待结算的商品行，按列存放：单价、数量、促销名称，同一下标是同一行
+ */
+public class OrderLines {
+
+    private final double[] prices;
+    private final int[] quantities;
+    private final String[] discounts;
+
+    public OrderLines(double[] prices, int[] quantities, String[] discounts) {
+        if (prices.length != quantities.length || prices.length != discounts.length) {
+            throw new IllegalArgumentException("单价、数量、促销名称的行数不一致");
+        }
+        this.prices = prices;
+        this.quantities = quantities;
+        this.discounts = discounts;
+    }
+
+    public int size() {
+        return prices.length;
+    }
+
+    public double price(int index) {
+        return prices[index];
+    }
+
+    public int quantity(int index) {
+        return quantities[index];
+    }
+
+    public String discount(int index) {
+        return discounts[index];
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.orderfile;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashRules;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 生成测试用的订单文件，用法：OrderFileGenerator 输出文件 行数
+ */
+public class OrderFileGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("用法：OrderFileGenerator 输出文件 行数");
+            return;
+        }
+        long lines = Long.parseLong(args[1]);
+        List<String> discounts = CashRules.getDefault().names();
+        Random random = new Random(2024);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            writer.write("单价,数量,促销名称\n");
+            for (long i = 0; i < lines; i++) {
+                int cents = 1 + random.nextInt(100_000);
+                writer.write(Integer.toString(cents / 100));
+                writer.write('.');
+                writer.write(Integer.toString(cents % 100 / 10));
+                writer.write(Integer.toString(cents % 10));
+                writer.write(',');
+                writer.write(Integer.toString(1 + random.nextInt(10)));
+                writer.write(',');
+                writer.write(discounts.get(random.nextInt(discounts.size())));
+                writer.write('\n');
+            }
+        }
+    }
+
+}
@@ -0,0 +1,384 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.orderfile;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashRules;
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashSuper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 订单文件批量计价：输入是 CSV 商品行「单价,数量,促销名称」，输出在每行末尾追加「,应收」
+ *
+ * - 输入文件按窗口分段做内存映射，同一时刻每个线程只映射一个窗口，内存占用与文件大小无关
+ * - 直接在映射的字节上解析单价、数量，促销名称按字节查表，每个字段都不创建 String
+ * - 输出先写入直接缓冲区，写满后通过 FileChannel 落盘
+ * - 多线程时按行边界把文件切成若干段，各段写入临时文件，最后按顺序拼接，输出行序与输入一致
+ *
+ * 第一行如果不是以数字开头，视为表头原样输出。应收金额与 CashierSystem 一致，经 CashFactory 的促销策略计算后保留两位小数
+ */
+public class OrderFilePricer {
+
+    // 每次映射的最大字节数，也是单行的最大长度
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+    private static final byte[] HEADER_SUFFIX = ",应收".getBytes(StandardCharsets.UTF_8);
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private final PromotionTable promotions;
+    private final int windowSize;
+
+    public OrderFilePricer() {
+        this(CashRules.getDefault().names(), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param promotionNames 需要识别的促销名称，其余名称按正常收费
+     * @param windowSize 每次映射的最大字节数
+     */
+    public OrderFilePricer(Collection<String> promotionNames, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize 必须大于 0：" + windowSize);
+        }
+        this.promotions = new PromotionTable(promotionNames);
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * 计价整个文件
+     * @param parallelism 并行的线程数，文件会按行边界切成同样多的段
+     * @return 计价的商品行数（不含表头和空行）
+     */
+    public long price(Path input, Path output, int parallelism) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long[] bounds = split(in, Math.max(1, parallelism));
+            int segments = bounds.length - 1;
+            if (segments == 1) {
+                try (FileChannel out = openOutput(output)) {
+                    return new Segment(in, out).process(bounds[0], bounds[1]);
+                }
+            }
+
+            List<Path> parts = new ArrayList<>(segments);
+            ExecutorService pool = Executors.newFixedThreadPool(segments);
+            try {
+                List<Future<Long>> futures = new ArrayList<>(segments);
+                for (int i = 0; i < segments; i++) {
+                    Path part = output.resolveSibling(output.getFileName() + ".part" + i);
+                    parts.add(part);
+                    long start = bounds[i];
+                    long end = bounds[i + 1];
+                    futures.add(pool.submit(() -> {
+                        try (FileChannel out = openOutput(part)) {
+                            return new Segment(in, out).process(start, end);
+                        }
+                    }));
+                }
+                long lines = 0L;
+                for (Future<Long> future : futures) {
+                    lines += future.get();
+                }
+                concat(parts, output);
+                return lines;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("计价被中断", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IOException(cause);
+            } finally {
+                pool.shutdownNow();
+                for (Path part : parts) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把文件均分为 parallelism 段，每个分界点后移到下一行的行首；文件太小时段数会减少
+     */
+    private long[] split(FileChannel in, int parallelism) throws IOException {
+        long size = in.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < parallelism; i++) {
+            long bound = Math.max(size * i / parallelism, bounds.get(bounds.size() - 1));
+            bound = nextLineStart(in, bound, size, probe);
+            if (bound > bounds.get(bounds.size() - 1) && bound < size) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel in, long position, long size, ByteBuffer probe) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        // 从分界点前一个字节开始找，恰好落在行首时不需要后移
+        long pos = position - 1;
+        while (pos < size) {
+            probe.clear();
+            int read = in.read(probe, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private static FileChannel openOutput(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void concat(List<Path> parts, Path output) throws IOException {
+        try (FileChannel out = openOutput(output)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0L;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 一段文件的计价，只在一个线程中使用
+     */
+    private final class Segment {
+        private final FileChannel in;
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        // 当前行的解析结果
+        private long mantissa;
+        private int scale;
+
+        private Segment(FileChannel in, FileChannel out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        long process(long start, long end) throws IOException {
+            long lines = 0L;
+            long position = start;
+            while (position < end) {
+                long length = Math.min(windowSize, end - position);
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int limit = (int) length;
+                if (position + length < end) {
+                    // 窗口只处理到最后一个完整行，剩下的半行留给下一个窗口
+                    limit = lastIndexOf(window, limit) + 1;
+                    if (limit == 0) {
+                        throw new IllegalArgumentException("偏移 " + position + " 处的行超过 " + windowSize + " 字节");
+                    }
+                }
+                int lineStart = 0;
+                while (lineStart < limit) {
+                    int lineEnd = indexOf(window, lineStart, limit);
+                    if (processLine(window, lineStart, lineEnd, position + lineStart == 0, position + lineStart)) {
+                        lines++;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                position += limit;
+            }
+            flush();
+            return lines;
+        }
+
+        /**
+         * @return 是否计价了一个商品行
+         */
+        private boolean processLine(ByteBuffer line, int from, int to, boolean firstLine, long offset) throws IOException {
+            int end = to > from && line.get(to - 1) == '\r' ? to - 1 : to;
+            if (end == from) {
+                return false;
+            }
+            byte first = line.get(from);
+            if (firstLine && (first < '0' || first > '9')) {
+                copy(line, from, end);
+                put(HEADER_SUFFIX);
+                put((byte) '\n');
+                return false;
+            }
+
+            int comma1 = indexOf(line, from, end, (byte) ',');
+            int comma2 = comma1 < 0 ? -1 : indexOf(line, comma1 + 1, end, (byte) ',');
+            if (comma2 < 0 || !parseDecimal(line, from, comma1)) {
+                throw new IllegalArgumentException("偏移 " + offset + " 处的行格式错误，应为「单价,数量,促销名称」");
+            }
+            double price = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+            if (!parseDecimal(line, comma1 + 1, comma2) || scale != 0 || mantissa > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("偏移 " + offset + " 处的数量不是整数");
+            }
+            int num = (int) mantissa;
+            CashSuper cashSuper = promotions.lookup(line, comma2 + 1, end);
+            long cents = Math.round(cashSuper.acceptCash(price * num) * 100D);
+
+            copy(line, from, end);
+            put((byte) ',');
+            putCents(cents);
+            put((byte) '\n');
+            return true;
+        }
+
+        /**
+         * 解析不带符号的十进制数，结果为 mantissa / 10^scale
+         */
+        private boolean parseDecimal(ByteBuffer line, int from, int to) {
+            long value = 0L;
+            int digits = 0;
+            int fraction = -1;
+            for (int i = from; i < to; i++) {
+                byte b = line.get(i);
+                if (b >= '0' && b <= '9') {
+                    if (++digits > 18) {
+                        return false;
+                    }
+                    value = value * 10 + (b - '0');
+                    if (fraction >= 0) {
+                        fraction++;
+                    }
+                } else if (b == '.' && fraction < 0) {
+                    fraction = 0;
+                } else {
+                    return false;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            mantissa = value;
+            scale = Math.max(fraction, 0);
+            return true;
+        }
+
+        private void putCents(long cents) throws IOException {
+            if (cents < 0) {
+                put((byte) '-');
+                cents = -cents;
+            }
+            putDigits(cents / 100);
+            put((byte) '.');
+            put((byte) ('0' + cents / 10 % 10));
+            put((byte) ('0' + cents % 10));
+        }
+
+        private void putDigits(long value) throws IOException {
+            if (value >= 10) {
+                putDigits(value / 10);
+            }
+            put((byte) ('0' + value % 10));
+        }
+
+        private void copy(ByteBuffer source, int from, int to) throws IOException {
+            while (from < to) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), to - from);
+                buffer.put(buffer.position(), source, from, length);
+                buffer.position(buffer.position() + length);
+                from += length;
+            }
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            for (byte b : bytes) {
+                put(b);
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to) {
+        int index = indexOf(buffer, from, to, (byte) '\n');
+        return index < 0 ? to : index;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte target) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 用法：OrderFilePricer 输入文件 输出文件 [线程数]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("用法：OrderFilePricer 输入文件 输出文件 [线程数]");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        long lines = new OrderFilePricer().price(input, output, parallelism);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("计价 %d 行，耗时 %.2f 秒，%.1f 万行/秒%n", lines, nanos / 1e9, lines / (nanos / 1e9) / 1e4);
+    }
+
+}
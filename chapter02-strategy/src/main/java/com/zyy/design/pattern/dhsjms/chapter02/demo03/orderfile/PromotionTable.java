@@ -0,0 +1,83 @@
+package com.zyy.design.pattern.dhsjms.chapter02.demo03.orderfile;
+
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashFactory;
+import com.zyy.design.pattern.dhsjms.chapter02.demo03.cash.CashSuper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * 按 UTF-8 字节查找促销策略的开放寻址哈希表，直接在文件映射的缓冲区上比较字节，不需要先解码成 String
+ * 创建后只读，可以被多个线程共享
+ */
+final class PromotionTable {
+
+    private final byte[][] keys;
+    private final CashSuper[] values;
+    private final int mask;
+    // 找不到促销名称时使用的策略，与 CashFactory 的默认行为一致
+    private final CashSuper fallback;
+
+    PromotionTable(Collection<String> names) {
+        int capacity = Integer.highestOneBit(Math.max(4, names.size() * 4) - 1) << 1;
+        this.keys = new byte[capacity][];
+        this.values = new CashSuper[capacity];
+        this.mask = capacity - 1;
+        this.fallback = CashFactory.createCashAccept(null);
+        for (String name : names) {
+            byte[] key = name.getBytes(StandardCharsets.UTF_8);
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = CashFactory.createCashAccept(name);
+        }
+    }
+
+    /**
+     * 查找 buffer[from, to) 对应的促销策略
+     */
+    CashSuper lookup(ByteBuffer buffer, int from, int to) {
+        int slot = hash(buffer, from, to) & mask;
+        byte[] key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, buffer, from, to)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return fallback;
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ (bytes[i] & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(ByteBuffer buffer, int from, int to) {
+        int hash = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ (buffer.get(i) & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+}
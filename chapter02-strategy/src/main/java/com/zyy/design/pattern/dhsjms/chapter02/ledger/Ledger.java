@@ -0,0 +1,62 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 收银账本：保存所有商品明细，并增量维护累计总价
+ *
+ * 新增一条明细只追加到列表末尾并累加总价，耗时与已有条数无关；
+ * 界面用 ListView 展示 {@link #getEntries()}，只有可见的行才会创建单元格并格式化文本
+ */
+public class Ledger {
+
+    private final ObservableList<LedgerEntry> entries = FXCollections.observableArrayList();
+    private final ObservableList<LedgerEntry> readOnlyEntries = FXCollections.unmodifiableObservableList(entries);
+    // 累计总价
+    private double total = 0.0;
+
+    /**
+     * 记一条明细，序号从 1 开始
+     */
+    public LedgerEntry add(double price, int num, String discount, double finalSubtotal) {
+        LedgerEntry entry = new LedgerEntry(entries.size() + 1, price, num, discount, finalSubtotal);
+        entries.add(entry);
+        total += finalSubtotal;
+        return entry;
+    }
+
+    /**
+     * 一次记多条明细，列表只触发一次变更通知
+     */
+    public void addAll(List<PricedItem> items) {
+        List<LedgerEntry> batch = new ArrayList<>(items.size());
+        int index = entries.size();
+        for (PricedItem item : items) {
+            batch.add(new LedgerEntry(++index, item.getPrice(), item.getNum(), item.getDiscount(), item.getFinalSubtotal()));
+            total += item.getFinalSubtotal();
+        }
+        entries.addAll(batch);
+    }
+
+    public void clear() {
+        entries.clear();
+        total = 0.0;
+    }
+
+    public ObservableList<LedgerEntry> getEntries() {
+        return readOnlyEntries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextArea;
+import javafx.stage.Stage;
+
+/**
+ * 明细区域的界面开销：原来的 TextArea 与现在的 ListView 各追加 20,000 行明细，
+ * 每 2,000 行做一次 CSS 和布局（相当于一次界面脉冲中绘制之前的部分），打印这一段每行的平均耗时
+ *
+ * TextArea 每次布局都要处理全部文本，耗时随行数增长；ListView 只为可见的行创建单元格，各段应基本持平
+ * 需要图形环境，在 FX 线程中同步执行，测完自动退出
+ */
+public class LedgerBenchmark extends Application {
+
+    private static final int ROWS = 20_000;
+    private static final int BLOCK = 2_000;
+    // 前几轮用于预热，只打印最后一轮
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean print = round == ROUNDS;
+            measure("TextArea", new TextAreaView(), stage, print);
+            measure("ListView", new ListViewView(), stage, print);
+        }
+        Platform.exit();
+    }
+
+    private static void measure(String name, DetailView view, Stage stage, boolean print) {
+        Parent root = view.root();
+        stage.setScene(new Scene(root, 460, 180));
+        stage.show();
+        if (print) {
+            System.out.println(name + "（µs/行，含追加、CSS 和布局）：");
+        }
+        long start = System.nanoTime();
+        for (int i = 1; i <= ROWS; i++) {
+            view.append(new LedgerEntry(i, 12.5, 3, "8折", 30.0));
+            if (i % BLOCK == 0) {
+                root.applyCss();
+                root.layout();
+                long now = System.nanoTime();
+                if (print) {
+                    System.out.printf("  第 %6d 行：%8.2f%n", i, (now - start) / 1_000.0 / BLOCK);
+                }
+                start = now;
+            }
+        }
+    }
+
+    /**
+     * 被比较的明细区域
+     */
+    private interface DetailView {
+        Parent root();
+
+        void append(LedgerEntry entry);
+    }
+
+    /**
+     * 原来的做法：每条明细追加一行文本
+     */
+    private static final class TextAreaView implements DetailView {
+        private final TextArea textArea = new TextArea();
+
+        private TextAreaView() {
+            textArea.setEditable(false);
+        }
+
+        @Override
+        public Parent root() {
+            return textArea;
+        }
+
+        @Override
+        public void append(LedgerEntry entry) {
+            textArea.appendText(entry.format() + "\n");
+        }
+    }
+
+    /**
+     * 现在的做法：与 CashierSystem 相同的 ListView，追加后滚动到最后一行
+     */
+    private static final class ListViewView implements DetailView {
+        private final Ledger ledger = new Ledger();
+        private final ListView<LedgerEntry> listView = new ListView<>(ledger.getEntries());
+
+        private ListViewView() {
+            listView.setCellFactory(view -> new ListCell<>() {
+                @Override
+                protected void updateItem(LedgerEntry entry, boolean empty) {
+                    super.updateItem(entry, empty);
+                    setText(empty || entry == null ? null : entry.format());
+                }
+            });
+        }
+
+        @Override
+        public Parent root() {
+            return listView;
+        }
+
+        @Override
+        public void append(LedgerEntry entry) {
+            ledger.add(entry.getPrice(), entry.getNum(), entry.getDiscount(), entry.getFinalSubtotal());
+            listView.scrollTo(ledger.size() - 1);
+        }
+    }
+}
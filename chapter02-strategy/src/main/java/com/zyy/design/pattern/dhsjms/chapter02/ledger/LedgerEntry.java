@@ -0,0 +1,60 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+/**
+ * 账本中的一条商品明细，创建后不可变；展示文本在界面需要显示时才格式化
+ */
+public final class LedgerEntry {
+
+    private final int index;
+    private final double price;
+    private final int num;
+    private final String discount;
+    private final double originalSubtotal;
+    private final double finalSubtotal;
+
+    public LedgerEntry(int index, double price, int num, String discount, double finalSubtotal) {
+        this.index = index;
+        this.price = price;
+        this.num = num;
+        this.discount = discount;
+        this.originalSubtotal = price * num;
+        this.finalSubtotal = finalSubtotal;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getNum() {
+        return num;
+    }
+
+    public String getDiscount() {
+        return discount;
+    }
+
+    public double getOriginalSubtotal() {
+        return originalSubtotal;
+    }
+
+    public double getFinalSubtotal() {
+        return finalSubtotal;
+    }
+
+    /**
+     * 明细展示文本，与原来追加到文本域中的格式一致
+     */
+    public String format() {
+        return String.format("✅ 商品%d:    单价: %.2f 数量: %d  费用: %.2f元   %s   应收：%.2f元",
+                index, price, num, originalSubtotal, discount, finalSubtotal);
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
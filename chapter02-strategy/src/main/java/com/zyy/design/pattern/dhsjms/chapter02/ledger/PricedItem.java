@@ -0,0 +1,35 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+/**
+ * 已在后台线程计算好应收、等待记账的商品
+ */
+public final class PricedItem {
+
+    private final double price;
+    private final int num;
+    private final String discount;
+    private final double finalSubtotal;
+
+    public PricedItem(double price, int num, String discount, double finalSubtotal) {
+        this.price = price;
+        this.num = num;
+        this.discount = discount;
+        this.finalSubtotal = finalSubtotal;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getNum() {
+        return num;
+    }
+
+    public String getDiscount() {
+        return discount;
+    }
+
+    public double getFinalSubtotal() {
+        return finalSubtotal;
+    }
+}
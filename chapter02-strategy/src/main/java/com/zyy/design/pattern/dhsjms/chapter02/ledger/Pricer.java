@@ -0,0 +1,11 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+/**
+ * 按促销名称计算应收，由各个收银系统提供具体的收费策略
+ */
+@FunctionalInterface
+public interface Pricer {
+
+    double price(String discount, double money);
+
+}
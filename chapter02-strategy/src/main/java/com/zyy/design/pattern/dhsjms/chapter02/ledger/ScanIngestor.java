@@ -0,0 +1,189 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+/**
+ * 扫码枪录入通道：任意线程提交商品，后台线程计算应收，JavaFX 线程每个脉冲最多合并更新一次界面
+ *
+ * 1. {@link #submit} 只把商品放入无锁队列，扫码线程不会被阻塞
+ * 2. 后台单线程按提交顺序计算应收，结果放入第二个无锁队列
+ * 3. AnimationTimer 每个脉冲取出已计算好的商品，一次性交给界面，界面只做一次更新
+ * 4. 单件商品计价失败（例如促销规则无法识别）不影响其他商品，失败原因在下一个脉冲交给界面
+ * 5. {@link #clear} 之前提交的商品不论是否已经算好都不再交给界面，重置后的账本不会混入旧商品
+ */
+public class ScanIngestor {
+
+    // 单个脉冲最多交给界面的商品数，剩余的留到下一个脉冲，避免一帧处理过久
+    public static final int MAX_ITEMS_PER_PULSE = 5000;
+
+    private final Pricer pricer;
+    private final Consumer<List<PricedItem>> onPriced;
+    private final Consumer<List<String>> onFailed;
+    private final Queue<ScannedItem> incoming = new ConcurrentLinkedQueue<>();
+    private final Queue<Stamped> priced = new ConcurrentLinkedQueue<>();
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+    // 每次 clear 加一，只在 JavaFX 线程中修改；计价结果带着提交时的值，不一致的在交给界面前丢弃
+    private volatile long epoch;
+    // 后台是否已经安排了计价任务，避免每件商品都提交一个任务
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scan-pricer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            deliver();
+        }
+    };
+
+    /**
+     * @param pricer 收费策略
+     * @param onPriced 在 JavaFX 线程中接收一个脉冲内计算好的商品
+     * @param onFailed 在 JavaFX 线程中接收一个脉冲内计价失败的原因
+     */
+    public ScanIngestor(Pricer pricer, Consumer<List<PricedItem>> onPriced, Consumer<List<String>> onFailed) {
+        this.pricer = Objects.requireNonNull(pricer, "pricer");
+        this.onPriced = Objects.requireNonNull(onPriced, "onPriced");
+        this.onFailed = Objects.requireNonNull(onFailed, "onFailed");
+    }
+
+    /**
+     * 开始按脉冲更新界面，必须在 JavaFX 线程中调用
+     */
+    public void start() {
+        pulse.start();
+    }
+
+    /**
+     * 停止更新界面并关闭后台线程，必须在 JavaFX 线程中调用
+     */
+    public void stop() {
+        pulse.stop();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 丢弃已经提交但还没交给界面的商品和失败原因，必须在 JavaFX 线程中调用
+     */
+    public void clear() {
+        epoch++;
+        incoming.clear();
+        priced.clear();
+        failures.clear();
+    }
+
+    /**
+     * 提交一件扫码商品，可以在任意线程调用
+     */
+    public void submit(double price, int num, String discount) {
+        incoming.offer(new ScannedItem(price, num, discount, epoch));
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            try {
+                ScannedItem item;
+                while ((item = incoming.poll()) != null) {
+                    price(item);
+                }
+            } finally {
+                // 无论如何都要放下标记，否则之后提交的商品再也不会被计价
+                draining.set(false);
+            }
+            // 放下标记后再检查一次，防止漏掉刚刚提交的商品
+        } while (!incoming.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void price(ScannedItem item) {
+        try {
+            double finalSubtotal = pricer.price(item.discount, item.price * item.num);
+            priced.offer(new Stamped(new PricedItem(item.price, item.num, item.discount, finalSubtotal), item.epoch));
+        } catch (RuntimeException e) {
+            failures.offer(new Failure(item.epoch, format("单价 %.2f × %d（%s）计价失败：%s", item.price, item.num, item.discount, e.getMessage())));
+        }
+    }
+
+    private void deliver() {
+        long current = epoch;
+        if (!failures.isEmpty()) {
+            List<String> failed = new ArrayList<>();
+            Failure failure;
+            while ((failure = failures.poll()) != null) {
+                if (failure.epoch == current) {
+                    failed.add(failure.message);
+                }
+            }
+            if (!failed.isEmpty()) {
+                onFailed.accept(failed);
+            }
+        }
+        if (priced.isEmpty()) {
+            return;
+        }
+        List<PricedItem> batch = new ArrayList<>();
+        Stamped item;
+        while (batch.size() < MAX_ITEMS_PER_PULSE && (item = priced.poll()) != null) {
+            // 重置之前提交、重置之后才算好的商品
+            if (item.epoch == current) {
+                batch.add(item.item);
+            }
+        }
+        if (!batch.isEmpty()) {
+            onPriced.accept(batch);
+        }
+    }
+
+    private static final class ScannedItem {
+        private final double price;
+        private final int num;
+        private final String discount;
+        private final long epoch;
+
+        private ScannedItem(double price, int num, String discount, long epoch) {
+            this.price = price;
+            this.num = num;
+            this.discount = discount;
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * 带提交时 epoch 的计价结果
+     */
+    private static final class Stamped {
+        private final PricedItem item;
+        private final long epoch;
+
+        private Stamped(PricedItem item, long epoch) {
+            this.item = item;
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class Failure {
+        private final long epoch;
+        private final String message;
+
+        private Failure(long epoch, String message) {
+            this.epoch = epoch;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.zyy.design.pattern.dhsjms.chapter02.ledger;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 模拟扫码枪：在独立线程中连续扫入一批商品，用来演示扫码录入不阻塞界面
+ */
+public final class SimulatedScanner {
+
+    private SimulatedScanner() {
+    }
+
+    /**
+     * 扫码结果的接收方，例如收银系统的 scan 方法
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void scan(double price, int num, String discount);
+    }
+
+    /**
+     * 启动一个后台线程，随机扫入 count 件商品，折扣从 discounts 中随机选择
+     */
+    public static Thread startBurst(Sink sink, List<String> discounts, int count) {
+        Objects.requireNonNull(sink, "sink");
+        if (discounts.isEmpty()) {
+            throw new IllegalArgumentException("discounts 不能为空");
+        }
+        List<String> choices = List.copyOf(discounts);
+        Thread thread = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count; i++) {
+                // 单价 1.00 ~ 500.00 元，数量 1 ~ 5 件
+                double price = random.nextInt(100, 50_001) / 100.0;
+                int num = random.nextInt(1, 6);
+                sink.scan(price, num, choices.get(random.nextInt(choices.size())));
+            }
+        }, "simulated-scanner");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,45 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents;
+
+import com.zyy.design.pattern.dhsjms.chapter06.cents.impl.CentsNormal;
+import com.zyy.design.pattern.dhsjms.chapter06.cents.impl.CentsRebate;
+import com.zyy.design.pattern.dhsjms.chapter06.cents.impl.CentsReturn;
+
+import java.math.RoundingMode;
+
+/**
+ * 以分为单位的收费上下文，收费类型与 demo02.CashContext 一一对应
+ */
+public class CentsContext {
+
+    private CentsSale sale;
+
+    public CentsContext(int cashType, RoundingMode roundingMode) {
+        switch (cashType) {
+            case 1:
+                this.sale = new CentsNormal();
+                break;
+            case 5:
+                // 先打8折，再满300返100
+                CentsRebate cashRebate = new CentsRebate(8, 10, roundingMode);
+                CentsReturn cashReturn = new CentsReturn(30000, 10000);
+                cashRebate.setComponent(new CentsNormal());
+                cashReturn.setComponent(cashRebate);
+                this.sale = cashReturn;
+                break;
+            case 6:
+                // 先满200返50，再打7折
+                CentsReturn cr4 = new CentsReturn(20000, 5000);
+                CentsRebate cr3 = new CentsRebate(7, 10, roundingMode);
+                cr4.setComponent(new CentsNormal());
+                cr3.setComponent(cr4);
+                this.sale = cr3;
+                break;
+
+        }
+    }
+
+    public long getResult(long priceCents, int num) {
+        return this.sale.acceptCents(priceCents, num);
+    }
+
+}
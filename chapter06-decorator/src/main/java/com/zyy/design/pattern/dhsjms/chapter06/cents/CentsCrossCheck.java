@@ -0,0 +1,85 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents;
+
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.CashContext;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.NoopTraceSink;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.PriceTrace;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * 分计价与 double 计价的对账
+ * 1. CentsMath.divide 的每种舍入模式与 BigDecimal 逐一比对，必须完全一致
+ * 2. 同一批商品分别走 demo02 的 double 装饰链和分装饰链，统计完全一致、差 1 分、差 1 分以上的行数
+ */
+public class CentsCrossCheck {
+
+    private static final RoundingMode[] MODES = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        checkDivide();
+
+        TraceSink sink = PriceTrace.sink();
+        PriceTrace.setSink(NoopTraceSink.INSTANCE);
+        try {
+            for (int type : new int[]{1, 5, 6}) {
+                for (RoundingMode mode : new RoundingMode[]{RoundingMode.HALF_UP, RoundingMode.HALF_EVEN}) {
+                    compare(type, mode, lines);
+                }
+            }
+        } finally {
+            PriceTrace.setSink(sink);
+        }
+    }
+
+    private static void checkDivide() {
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            long dividend = random.nextInt(2_000_001) - 1_000_000;
+            long divisor = random.nextInt(199) - 99;
+            if (divisor == 0) {
+                continue;
+            }
+            for (RoundingMode mode : MODES) {
+                long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+                long actual = CentsMath.divide(dividend, divisor, mode);
+                if (expected != actual) {
+                    throw new IllegalStateException(dividend + " / " + divisor + " " + mode + "：期望 " + expected + "，实际 " + actual);
+                }
+            }
+        }
+        System.out.println("CentsMath.divide 与 BigDecimal 一致");
+    }
+
+    private static void compare(int type, RoundingMode mode, int lines) {
+        CashContext doubleContext = new CashContext(type);
+        CentsContext centsContext = new CentsContext(type, mode);
+        Random random = new Random(type);
+        long exact = 0L;
+        long offByOne = 0L;
+        long worse = 0L;
+        for (int i = 0; i < lines; i++) {
+            long priceCents = 1 + random.nextInt(100_000);
+            int num = 1 + random.nextInt(20);
+            long cents = centsContext.getResult(priceCents, num);
+            long fromDouble = CentsMath.toCents(doubleContext.getResult(priceCents / 100D, num), mode);
+            long diff = Math.abs(cents - fromDouble);
+            if (diff == 0) {
+                exact++;
+            } else if (diff == 1) {
+                offByOne++;
+            } else {
+                worse++;
+            }
+        }
+        System.out.printf("类型 %d %-9s 一致 %d 行，差 1 分 %d 行，差 1 分以上 %d 行%n",
+                type, mode, exact, offByOne, worse);
+    }
+
+}
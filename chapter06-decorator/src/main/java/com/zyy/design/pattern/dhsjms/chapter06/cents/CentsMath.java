@@ -0,0 +1,77 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 分的整数运算：带舍入模式的除法、溢出检查，只使用 long，不创建对象
+ */
+public final class CentsMath {
+
+    private CentsMath() {
+    }
+
+    /**
+     * 按指定舍入模式计算 dividend / divisor
+     * @throws ArithmeticException divisor 为 0，或者舍入模式为 UNNECESSARY 但不能整除
+     */
+    public static long divide(long dividend, long divisor, RoundingMode mode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // 精确结果的符号，决定「远离 0」的方向
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        // 余数与除数一半的比较，不用乘 2，避免溢出
+        int half = Long.compare(absRemainder, absDivisor - absRemainder);
+        boolean increment;
+        switch (mode) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = sign > 0;
+                break;
+            case FLOOR:
+                increment = sign < 0;
+                break;
+            case HALF_UP:
+                increment = half >= 0;
+                break;
+            case HALF_DOWN:
+                increment = half > 0;
+                break;
+            case HALF_EVEN:
+                increment = half > 0 || (half == 0 && (quotient & 1) != 0);
+                break;
+            default:
+                throw new ArithmeticException("需要舍入：" + dividend + " / " + divisor);
+        }
+        return increment ? quotient + sign : quotient;
+    }
+
+    /**
+     * 金额乘以比例 numerator / denominator，按指定舍入模式取整
+     */
+    public static long multiply(long cents, long numerator, long denominator, RoundingMode mode) {
+        return divide(Math.multiplyExact(cents, numerator), denominator, mode);
+    }
+
+    /**
+     * 元转分，只用于录入和对账，会创建 BigDecimal
+     */
+    public static long toCents(double yuan, RoundingMode mode) {
+        return BigDecimal.valueOf(yuan).setScale(2, mode).unscaledValue().longValueExact();
+    }
+
+    public static double toYuan(long cents) {
+        return cents / 100D;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents;
+
+/**
+ * 以分为单位的收费接口，金额全部是 long，计算过程没有浮点误差
+ */
+public interface CentsSale {
+
+    /**
+     * @param priceCents 单价（分）
+     * @param num 数量
+     * @return 应收金额（分）
+     */
+    long acceptCents(long priceCents, int num);
+
+}
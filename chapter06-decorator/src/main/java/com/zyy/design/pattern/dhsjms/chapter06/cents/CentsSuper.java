@@ -0,0 +1,27 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents;
+
+/**
+ * 以分为单位的装饰者基类，组合顺序与 demo02 相同：先计算内层组件，再叠加自己的算法
+ */
+public class CentsSuper implements CentsSale {
+
+    protected CentsSale component;
+
+    public void setComponent(CentsSale component) {
+        this.component = component;
+    }
+
+    public CentsSale getComponent() {
+        return component;
+    }
+
+    @Override
+    public long acceptCents(long priceCents, int num) {
+        long result = 0L;
+        if (this.component != null) {
+            // 如果装饰对象存在，则执行装饰对象的算法运算
+            result = this.component.acceptCents(priceCents, num);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents.impl;
+
+import com.zyy.design.pattern.dhsjms.chapter06.cents.CentsSale;
+
+public class CentsNormal implements CentsSale {
+    @Override
+    public long acceptCents(long priceCents, int num) {
+        // 正常收费，原价返回，溢出时抛出 ArithmeticException
+        return Math.multiplyExact(priceCents, num);
+    }
+}
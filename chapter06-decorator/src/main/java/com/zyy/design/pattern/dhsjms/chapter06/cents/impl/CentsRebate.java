@@ -0,0 +1,43 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents.impl;
+
+import com.zyy.design.pattern.dhsjms.chapter06.cents.CentsMath;
+import com.zyy.design.pattern.dhsjms.chapter06.cents.CentsSuper;
+
+import java.math.RoundingMode;
+import java.util.Objects;
+
+public class CentsRebate extends CentsSuper {
+
+    // 折扣率 = rateNumerator / rateDenominator，八折就是 8 / 10
+    private final long rateNumerator;
+    private final long rateDenominator;
+    // 打折后不足一分时的舍入方式
+    private final RoundingMode roundingMode;
+
+    public CentsRebate(long rateNumerator, long rateDenominator, RoundingMode roundingMode) {
+        if (rateNumerator < 0 || rateDenominator <= 0) {
+            throw new IllegalArgumentException("折扣率不合法：" + rateNumerator + "/" + rateDenominator);
+        }
+        this.rateNumerator = rateNumerator;
+        this.rateDenominator = rateDenominator;
+        this.roundingMode = Objects.requireNonNull(roundingMode, "roundingMode");
+    }
+
+    public long getRateNumerator() {
+        return rateNumerator;
+    }
+
+    public long getRateDenominator() {
+        return rateDenominator;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    @Override
+    public long acceptCents(long priceCents, int num) {
+        long result = super.acceptCents(priceCents, num);
+        return CentsMath.multiply(result, rateNumerator, rateDenominator, roundingMode);
+    }
+}
@@ -0,0 +1,34 @@
+package com.zyy.design.pattern.dhsjms.chapter06.cents.impl;
+
+import com.zyy.design.pattern.dhsjms.chapter06.cents.CentsSuper;
+
+public class CentsReturn extends CentsSuper {
+    // 返利条件（分）
+    private final long conditionCents;
+    // 返利值（分）
+    private final long returnCents;
+
+    // 比如 “满300返100” 就是 new CentsReturn(30000, 10000)
+    public CentsReturn(long conditionCents, long returnCents) {
+        this.conditionCents = conditionCents;
+        this.returnCents = returnCents;
+    }
+
+    public long getConditionCents() {
+        return conditionCents;
+    }
+
+    public long getReturnCents() {
+        return returnCents;
+    }
+
+    // 整数除法就是向下取整，不需要 Math.floor
+    @Override
+    public long acceptCents(long priceCents, int num) {
+        long result = super.acceptCents(priceCents, num);
+        if (conditionCents > 0 && result >= conditionCents) {
+            result = result - Math.multiplyExact(result / conditionCents, returnCents);
+        }
+        return result;
+    }
+}
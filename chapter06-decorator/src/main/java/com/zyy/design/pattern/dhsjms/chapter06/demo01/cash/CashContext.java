@@ -41,4 +41,9 @@ public class CashContext {
         return this.sale.acceptCash(price, num);
     }
 
+    // 把装饰链编译为扁平的收费函数，结果不变，之后的 getResult 不再逐层递归
+    public void compile() {
+        this.sale = CashCompiler.compile(this.sale);
+    }
+
 }
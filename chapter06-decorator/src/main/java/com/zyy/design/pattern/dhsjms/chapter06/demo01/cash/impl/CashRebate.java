@@ -1,6 +1,8 @@
 package com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.impl;
 
 import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashSuper;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.PriceTrace;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
 
 public class CashRebate extends CashSuper {
 
@@ -11,11 +13,15 @@ public class CashRebate extends CashSuper {
         this.moneyRebate = moneyRebate;
     }
 
+    public double getMoneyRebate() {
+        return moneyRebate;
+    }
+
     // 计算收费时需要在原价基础上乘以折扣率
     @Override
     public double acceptCash(double price, int num) {
         double result = price * num * this.moneyRebate;
-        System.out.println("打折收费，折扣率：" + this.moneyRebate + " 收费：" + result);
+        PriceTrace.sink().record(TraceSink.STEP_REBATE, this.moneyRebate, 0D, result);
         result = super.acceptCash(result, 1);
         return result;
     }
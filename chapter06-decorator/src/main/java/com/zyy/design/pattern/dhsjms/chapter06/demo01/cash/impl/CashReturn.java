@@ -1,6 +1,8 @@
 package com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.impl;
 
 import com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashSuper;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.PriceTrace;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
 
 public class CashReturn extends CashSuper {
     // 返利条件
@@ -15,6 +17,14 @@ public class CashReturn extends CashSuper {
         this.moneyRetrun = moneyReturn;
     }
 
+    public double getMoneyCondition() {
+        return moneyCondition;
+    }
+
+    public double getMoneyReturn() {
+        return moneyRetrun;
+    }
+
     // 计算收费时，当达到返利条件，就按原价减去返利值
     @Override
     public double acceptCash(double price, int num) {
@@ -22,7 +32,7 @@ public class CashReturn extends CashSuper {
         if (moneyCondition > 0 && result >= moneyCondition) {
             result = result - Math.floor(result / moneyCondition) * moneyRetrun;
         }
-        System.out.println("满" + moneyCondition + "返" + moneyRetrun + "收费：" + result);
+        PriceTrace.sink().record(TraceSink.STEP_RETURN, moneyCondition, moneyRetrun, result);
         result = super.acceptCash(result, 1);
         return result;
     }
@@ -0,0 +1,113 @@
+package com.zyy.design.pattern.dhsjms.chapter06.demo02;
+
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.impl.CashNormal;
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.impl.CashRebate;
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.impl.CashReturn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 装饰链编译器：把组装好的 ISale 装饰链展开成一个扁平的收费函数
+ *
+ * demo02 的装饰者先调用内层组件，再在结果上叠加自己的算法，
+ * 所以编译后从最内层的组件开始，由内向外依次执行每一步
+ */
+public class CashCompiler {
+
+    private static final byte REBATE = 1;
+    private static final byte RETURN = 2;
+
+    private CashCompiler() {
+    }
+
+    /**
+     * 编译装饰链，计算结果与原装饰链逐位一致，但不再逐层记录收费轨迹（PriceTrace）
+     * 只识别 CashNormal、CashRebate、CashReturn 和 CashSuper 本身，其他 ISale 实现原样作为最内层组件调用
+     * @param sale 组装好的装饰链
+     * @return 扁平的收费函数
+     */
+    public static ISale compile(ISale sale) {
+        Objects.requireNonNull(sale, "sale");
+        if (sale instanceof CompiledSale) {
+            return sale;
+        }
+        // 由外向内收集每一层的算法
+        List<ISale> steps = new ArrayList<>();
+        ISale node = sale;
+        while (node != null && isDecorator(node)) {
+            if (node.getClass() != CashSuper.class) {
+                steps.add(node);
+            }
+            node = ((CashSuper) node).getComponent();
+        }
+
+        int size = steps.size();
+        byte[] kinds = new byte[size];
+        double[] args1 = new double[size];
+        double[] args2 = new double[size];
+        // 执行顺序由内向外，所以倒序写入
+        for (int i = 0; i < size; i++) {
+            ISale step = steps.get(size - 1 - i);
+            if (step instanceof CashRebate rebate) {
+                kinds[i] = REBATE;
+                args1[i] = rebate.getMoneyRebate();
+            } else {
+                CashReturn cashReturn = (CashReturn) step;
+                kinds[i] = RETURN;
+                args1[i] = cashReturn.getMoneyCondition();
+                args2[i] = cashReturn.getMoneyReturn();
+            }
+        }
+        return new CompiledSale(node, kinds, args1, args2);
+    }
+
+    private static boolean isDecorator(ISale node) {
+        Class<?> type = node.getClass();
+        return type == CashSuper.class || type == CashRebate.class || type == CashReturn.class;
+    }
+
+    /**
+     * 编译后的收费函数，只有一个实现类，调用点始终是单态的
+     */
+    static final class CompiledSale implements ISale {
+        // 最内层组件：CashNormal 直接按原价计算，null 表示装饰链没有组件（原装饰链此时返回 0）
+        private final ISale leaf;
+        private final boolean normalLeaf;
+        private final byte[] kinds;
+        private final double[] args1;
+        private final double[] args2;
+
+        private CompiledSale(ISale leaf, byte[] kinds, double[] args1, double[] args2) {
+            this.leaf = leaf;
+            this.normalLeaf = leaf != null && leaf.getClass() == CashNormal.class;
+            this.kinds = kinds;
+            this.args1 = args1;
+            this.args2 = args2;
+        }
+
+        @Override
+        public double acceptCash(double price, int num) {
+            double result;
+            if (normalLeaf) {
+                result = price * num;
+            } else if (leaf == null) {
+                result = 0D;
+            } else {
+                result = leaf.acceptCash(price, num);
+            }
+            for (int i = 0; i < kinds.length; i++) {
+                if (kinds[i] == REBATE) {
+                    result = result * args1[i];
+                } else {
+                    double condition = args1[i];
+                    if (condition > 0 && result >= condition) {
+                        result = result - Math.floor(result / condition) * args2[i];
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
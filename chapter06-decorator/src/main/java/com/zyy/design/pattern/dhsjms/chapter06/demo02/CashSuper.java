@@ -8,6 +8,10 @@ public class CashSuper implements ISale {
         this.component = component;
     }
 
+    public ISale getComponent() {
+        return component;
+    }
+
     @Override
     public double acceptCash(double price, int num) {
         double result = 0D;
@@ -0,0 +1,96 @@
+package com.zyy.design.pattern.dhsjms.chapter06.demo02;
+
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.impl.CashNormal;
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.impl.CashRebate;
+import com.zyy.design.pattern.dhsjms.chapter06.demo02.impl.CashReturn;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.NoopTraceSink;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.PriceTrace;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
+
+import java.util.Random;
+
+/**
+ * 装饰链与编译后收费函数的对比：先校验 demo01、demo02 两种组合顺序的结果一致，再按链深度 1~10 计时
+ * 编译后的函数不记录收费轨迹，计时期间装饰链也换成不记录轨迹的接收器
+ */
+public class CompileBenchmark {
+
+    private static final int CALLS = 200_000;
+
+    public static void main(String[] args) {
+        TraceSink sink = PriceTrace.sink();
+        PriceTrace.setSink(NoopTraceSink.INSTANCE);
+        try {
+            verify();
+            System.out.println("深度   装饰链(ns/次)   编译后(ns/次)");
+            for (int depth = 1; depth <= 10; depth++) {
+                ISale chain = chain(depth);
+                ISale compiled = CashCompiler.compile(chain);
+                // 预热
+                run(chain, CALLS);
+                run(compiled, CALLS);
+                long start = System.nanoTime();
+                run(chain, CALLS);
+                long chainNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                run(compiled, CALLS);
+                long compiledNanos = System.nanoTime() - start;
+                System.out.printf("%4d   %12.1f   %12.1f%n", depth,
+                        (double) chainNanos / CALLS, (double) compiledNanos / CALLS);
+            }
+        } finally {
+            PriceTrace.setSink(sink);
+        }
+    }
+
+    /**
+     * 交替叠加打折和满减，最内层是正常收费
+     */
+    static ISale chain(int depth) {
+        ISale sale = new CashNormal();
+        for (int i = 0; i < depth; i++) {
+            CashSuper decorator = i % 2 == 0 ? new CashRebate(0.9) : new CashReturn(200D, 30D);
+            decorator.setComponent(sale);
+            sale = decorator;
+        }
+        return sale;
+    }
+
+    private static void verify() {
+        Random random = new Random(7);
+        int[] types = {1, 5, 6};
+        for (int type : types) {
+            CashContext demo02 = new CashContext(type);
+            CashContext compiled02 = new CashContext(type);
+            compiled02.compile();
+            com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashContext demo01 =
+                    new com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashContext(type);
+            com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashContext compiled01 =
+                    new com.zyy.design.pattern.dhsjms.chapter06.demo01.cash.CashContext(type);
+            compiled01.compile();
+            for (int i = 0; i < 100_000; i++) {
+                double price = random.nextInt(100000) / 100D;
+                int num = 1 + random.nextInt(10);
+                check(demo02.getResult(price, num), compiled02.getResult(price, num), "demo02", type, price, num);
+                check(demo01.getResult(price, num), compiled01.getResult(price, num), "demo01", type, price, num);
+            }
+        }
+        System.out.println("校验通过：编译前后 demo01、demo02 的收费结果逐位一致");
+    }
+
+    private static void check(double expected, double actual, String demo, int type, double price, int num) {
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+            throw new IllegalStateException(demo + " 类型 " + type + " 单价 " + price + " 数量 " + num
+                    + "：期望 " + expected + "，实际 " + actual);
+        }
+    }
+
+    private static double run(ISale sale, int calls) {
+        double sum = 0D;
+        for (int i = 0; i < calls; i++) {
+            sum += sale.acceptCash(100D + (i & 1023), 1 + (i & 3));
+        }
+        return sum;
+    }
+
+}
@@ -1,13 +1,15 @@
 package com.zyy.design.pattern.dhsjms.chapter06.demo02.impl;
 
 import com.zyy.design.pattern.dhsjms.chapter06.demo02.ISale;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.PriceTrace;
+import com.zyy.design.pattern.dhsjms.chapter06.trace.TraceSink;
 
 public class CashNormal implements ISale {
     @Override
     public double acceptCash(double price, int num) {
         // 正常收费，原价返回
         double result = price * num;
-        System.out.println("正常收费: " + result);
+        PriceTrace.sink().record(TraceSink.STEP_NORMAL, 0D, 0D, result);
         return result;
     }
 }
@@ -0,0 +1,38 @@
+package com.zyy.design.pattern.dhsjms.chapter06.trace;
+
+import java.io.PrintStream;
+
+/**
+ * 逐条打印收费轨迹，输出格式与装饰者原来的 System.out.println 一致，是默认的接收器
+ */
+public final class ConsoleTraceSink implements TraceSink {
+
+    // 打印到调用时的 System.out
+    public static final ConsoleTraceSink INSTANCE = new ConsoleTraceSink(null);
+
+    private final PrintStream out;
+
+    public ConsoleTraceSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void record(int step, double arg1, double arg2, double result) {
+        PrintStream stream = out != null ? out : System.out;
+        stream.println(format(step, arg1, arg2, result));
+    }
+
+    static String format(int step, double arg1, double arg2, double result) {
+        switch (step) {
+            case TraceSink.STEP_NORMAL:
+                return "正常收费: " + result;
+            case TraceSink.STEP_REBATE:
+                return "打折收费，折扣率：" + arg1 + " 收费：" + result;
+            case TraceSink.STEP_RETURN:
+                return "满" + arg1 + "返" + arg2 + "收费：" + result;
+            default:
+                return "未知步骤" + step + " 收费：" + result;
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.zyy.design.pattern.dhsjms.chapter06.trace;
+
+/**
+ * 不记录任何轨迹，压测或批量结算时使用
+ */
+public final class NoopTraceSink implements TraceSink {
+
+    public static final NoopTraceSink INSTANCE = new NoopTraceSink();
+
+    private NoopTraceSink() {
+    }
+
+    @Override
+    public void record(int step, double arg1, double arg2, double result) {
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.zyy.design.pattern.dhsjms.chapter06.trace;
+
+import java.util.Objects;
+
+/**
+ * 装饰链使用的轨迹接收器，默认逐条打印到控制台，可以随时切换为不记录或环形缓冲区
+ */
+public final class PriceTrace {
+
+    private static volatile TraceSink sink = ConsoleTraceSink.INSTANCE;
+
+    private PriceTrace() {
+    }
+
+    public static TraceSink sink() {
+        return sink;
+    }
+
+    public static void setSink(TraceSink traceSink) {
+        sink = Objects.requireNonNull(traceSink, "traceSink");
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.zyy.design.pattern.dhsjms.chapter06.trace;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 环形缓冲区接收器：预先分配固定容量的基本类型数组，只保留最近的 capacity 条轨迹，需要时再导出
+ *
+ * 记录时只占用一个序号并写入数组，不创建对象，也不加锁。
+ * 多个线程同时记录互不阻塞；导出时如果仍有线程在记录，正在写入的那几条可能不完整
+ */
+public final class RingBufferTraceSink implements TraceSink {
+
+    /**
+     * 按时间顺序访问轨迹的回调
+     */
+    public interface TraceVisitor {
+        void visit(long sequence, int step, double arg1, double arg2, double result);
+    }
+
+    private final int mask;
+    private final int[] steps;
+    private final double[] args1;
+    private final double[] args2;
+    private final double[] results;
+    // 下一条轨迹的序号
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * @param capacity 最多保留的轨迹条数，会向上取整为 2 的幂
+     */
+    public RingBufferTraceSink(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity 必须在 1 ~ 2^30 之间：" + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.steps = new int[size];
+        this.args1 = new double[size];
+        this.args2 = new double[size];
+        this.results = new double[size];
+    }
+
+    @Override
+    public void record(int step, double arg1, double arg2, double result) {
+        int index = (int) (cursor.getAndIncrement() & mask);
+        steps[index] = step;
+        args1[index] = arg1;
+        args2[index] = arg2;
+        results[index] = result;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // 累计记录过的轨迹条数（包括已被覆盖的）
+    public long recorded() {
+        return cursor.get();
+    }
+
+    public void clear() {
+        cursor.set(0L);
+    }
+
+    /**
+     * 从旧到新访问缓冲区中保留的轨迹
+     */
+    public void forEach(TraceVisitor visitor) {
+        long end = cursor.get();
+        long start = Math.max(0L, end - capacity());
+        for (long sequence = start; sequence < end; sequence++) {
+            int index = (int) (sequence & mask);
+            visitor.visit(sequence, steps[index], args1[index], args2[index], results[index]);
+        }
+    }
+
+    /**
+     * 按控制台接收器的格式导出保留的轨迹
+     */
+    public void dump(PrintStream out) {
+        forEach((sequence, step, arg1, arg2, result) ->
+                out.println("#" + sequence + " " + ConsoleTraceSink.format(step, arg1, arg2, result)));
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.zyy.design.pattern.dhsjms.chapter06.trace;
+
+/**
+ * 收费轨迹接收器：装饰链每计算一步就记录一次，参数全部是基本类型，记录本身不需要创建对象
+ */
+public interface TraceSink {
+
+    // 正常收费，arg1、arg2 无意义
+    int STEP_NORMAL = 0;
+    // 打折收费，arg1 为折扣率
+    int STEP_REBATE = 1;
+    // 满减收费，arg1 为返利条件，arg2 为返利值
+    int STEP_RETURN = 2;
+
+    /**
+     * 记录一步收费计算
+     * @param step 计算步骤，取值为 STEP_* 常量
+     * @param arg1 第一个参数（折扣率或返利条件）
+     * @param arg2 第二个参数（返利值）
+     * @param result 这一步计算后的中间结果
+     */
+    void record(int step, double arg1, double arg2, double result);
+
+}
@@ -0,0 +1,47 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.MethodHandleInvocationHandler;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserService;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserServiceImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 与 Demo01 相同的日志代理，InvocationHandler 换成缓存 MethodHandle 的实现
+ */
+public class Demo02 {
+
+    public static void main(String[] args) {
+        // 1. 创建目标对象（被代理对象）
+        UserService userService = new UserServiceImpl();
+
+        // 2. 创建 MethodHandleInvocationHandler，在前后钩子中打印日志
+        InvocationHandler handler = new MethodHandleInvocationHandler(userService) {
+            @Override
+            protected void before(Method method, Object[] args) {
+                System.out.println("前置日志：调用方法 Before");
+            }
+
+            @Override
+            protected void after(Method method, Object result) {
+                System.out.println("后置日志：调用方法 After");
+            }
+        };
+
+        // 3. 使用 Proxy.newProxyInstance() 生成代理对象
+        UserService userServiceProxy = (UserService) Proxy.newProxyInstance(
+                userService.getClass().getClassLoader(),
+                userService.getClass().getInterfaces(),
+                handler);
+
+        // 4. 调用代理对象的方法，第一次调用时解析 MethodHandle，之后直接使用缓存
+        userServiceProxy.addUser("张三");
+        userServiceProxy.deleteUser("李四");
+        userServiceProxy.addUser("王五");
+        // Object 的方法同样转发给目标对象
+        System.out.println("代理对象 toString：" + userServiceProxy);
+    }
+
+}
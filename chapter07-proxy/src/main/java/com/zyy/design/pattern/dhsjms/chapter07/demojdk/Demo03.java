@@ -0,0 +1,130 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.MethodHandleInvocationHandler;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden.HiddenProxyFactory;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden.Interceptor;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserService;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserServiceImpl;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 隐藏类代理演示：与 Demo01 相同的日志代理改用 HiddenProxyFactory 生成，
+ * 再代理带基本类型参数的接口和 JDK 的 Comparator，最后对比创建代理的耗时
+ */
+public class Demo03 {
+
+    private static final int CREATIONS = 100_000;
+
+    public static void main(String[] args) {
+        HiddenProxyFactory factory = new HiddenProxyFactory();
+
+        // 1. 与 Demo01 相同的日志代理
+        UserService userService = new UserServiceImpl();
+        long start = System.nanoTime();
+        UserService userServiceProxy = factory.create(UserService.class, userService, new LoggingInterceptor());
+        long firstNanos = System.nanoTime() - start;
+        userServiceProxy.addUser("张三");
+        userServiceProxy.deleteUser("李四");
+        System.out.println("代理类：" + userServiceProxy.getClass().getName() + "，toString：" + userServiceProxy);
+
+        // 2. 基本类型参数和返回值原样传递，两个拦截器按顺序执行
+        Calculator calculator = factory.create(Calculator.class, new SimpleCalculator(),
+                new CountingInterceptor(), new CountingInterceptor());
+        System.out.println("add(1, 2) = " + calculator.add(1L, 2) + "，scale(1.5, 2) = " + calculator.scale(1.5, 2f)
+                + "，positive(-1) = " + calculator.positive(-1) + "，name() = " + calculator.name());
+
+        // 3. JDK 接口：包含默认方法和重新声明的 equals
+        @SuppressWarnings("unchecked")
+        Comparator<String> byLength = factory.create(Comparator.class, Comparator.comparingInt(String::length),
+                new CountingInterceptor());
+        List<String> words = Arrays.asList("observer", "proxy", "strategy", "facade");
+        words.sort(byLength.thenComparing(Comparator.naturalOrder()));
+        System.out.println("按长度排序：" + words);
+        System.out.println("已生成代理类：" + factory.getGeneratedCount());
+
+        // 4. 创建代理的耗时：第一次需要生成类，之后只是调用构造方法
+        UserService silent = new UserServiceImpl();
+        Interceptor noop = new CountingInterceptor();
+        Object sink = null;
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < CREATIONS; i++) {
+                sink = factory.create(UserService.class, silent, noop);
+            }
+            long hiddenNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < CREATIONS; i++) {
+                sink = Proxy.newProxyInstance(UserService.class.getClassLoader(), new Class<?>[]{UserService.class},
+                        new MethodHandleInvocationHandler(silent));
+            }
+            long jdkNanos = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("第一次生成隐藏类代理 %.2f ms；之后每次创建：隐藏类代理 %d ns，JDK 代理 %d ns%n",
+                        firstNanos / 1e6, hiddenNanos / CREATIONS, jdkNanos / CREATIONS);
+            }
+        }
+        System.out.println("已生成代理类：" + factory.getGeneratedCount() + "（" + (sink != null) + "）");
+    }
+
+    /**
+     * 带基本类型参数的接口
+     */
+    public interface Calculator {
+        long add(long a, int b);
+
+        double scale(double value, float factor);
+
+        boolean positive(int value);
+
+        String name();
+    }
+
+    public static class SimpleCalculator implements Calculator {
+        @Override
+        public long add(long a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public double scale(double value, float factor) {
+            return value * factor;
+        }
+
+        @Override
+        public boolean positive(int value) {
+            return value > 0;
+        }
+
+        @Override
+        public String name() {
+            return "简单计算器";
+        }
+    }
+
+    public static class LoggingInterceptor implements Interceptor {
+        @Override
+        public void before(Method method) {
+            System.out.println("前置日志：调用方法 Before");
+        }
+
+        @Override
+        public void after(Method method) {
+            System.out.println("后置日志：调用方法 After");
+        }
+    }
+
+    public static class CountingInterceptor implements Interceptor {
+        private long calls;
+
+        @Override
+        public void before(Method method) {
+            calls++;
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.batch.BatchingProxy;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.AsyncUserService;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.BatchUserService;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 微批代理演示：模拟每次调用都要一次数据库往返的用户服务，对比
+ * 1. 逐条调用 2. 直接调用批量方法 3. 异步代理（单线程逐条提交） 4. 阻塞代理（多线程逐条调用）
+ * 的吞吐量，代理的调用者仍然使用逐条的接口
+ */
+public class Demo04 {
+
+    // 一次数据库往返
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int SINGLE_CALLS = 1_000;
+    private static final int ITEMS = 20_000;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long MAX_DELAY_MILLIS = 2;
+    private static final int CALLER_THREADS = 32;
+    // 异步提交时最多有多少条还没完成，不能超过 MicroBatcher 的队列容量
+    private static final int MAX_IN_FLIGHT = 4_096;
+
+    public static void main(String[] args) throws Exception {
+        // 1. 逐条调用：每条一次往返
+        UserDao dao = new UserDao();
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_CALLS; i++) {
+            dao.addUser("single-" + i);
+        }
+        report("逐条调用", SINGLE_CALLS, System.nanoTime() - start, dao);
+
+        // 2. 直接调用批量方法：调用者自己分批
+        dao = new UserDao();
+        start = System.nanoTime();
+        List<String> chunk = new ArrayList<>(MAX_BATCH_SIZE);
+        for (int i = 0; i < ITEMS; i++) {
+            chunk.add("batch-" + i);
+            if (chunk.size() == MAX_BATCH_SIZE || i == ITEMS - 1) {
+                dao.addUsers(chunk);
+                chunk = new ArrayList<>(MAX_BATCH_SIZE);
+            }
+        }
+        report("直接批量", ITEMS, System.nanoTime() - start, dao);
+
+        // 3. 异步代理：单线程逐条提交，每个调用者拿到自己的结果
+        dao = new UserDao();
+        BatchUserService target = dao;
+        try (BatchingProxy<AsyncUserService> batching = new BatchingProxy<>(AsyncUserService.class, null,
+                MAX_BATCH_SIZE, MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS)) {
+            batching.batch("addUser", target::addUsers).batch("deleteUser", target::deleteUsers);
+            AsyncUserService service = batching.getProxy();
+
+            CompletableFuture<Boolean> first = service.addUser("张三");
+            CompletableFuture<Boolean> duplicate = service.addUser("张三");
+            CompletableFuture<Boolean> missing = service.deleteUser("李四");
+            System.out.println("新增张三：" + first.join() + "，再次新增张三：" + duplicate.join()
+                    + "，删除不存在的李四：" + missing.join());
+
+            start = System.nanoTime();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>(ITEMS);
+            int added = 0;
+            int joined = 0;
+            for (int i = 0; i < ITEMS; i++) {
+                futures.add(service.addUser("async-" + i));
+                // 未完成的太多时先等最早的一条，批量方法跟不上时调用者放慢提交
+                if (futures.size() - joined >= MAX_IN_FLIGHT) {
+                    added += futures.get(joined++).join() ? 1 : 0;
+                }
+            }
+            for (; joined < futures.size(); joined++) {
+                added += futures.get(joined).join() ? 1 : 0;
+            }
+            report("异步代理", added, System.nanoTime() - start, dao);
+            System.out.println("  " + batching.getBatchers());
+        }
+
+        // 4. 阻塞代理：保留 UserService 的同步接口，多个线程同时调用时攒成批
+        UserDao blockingDao = new UserDao();
+        BatchingProxy<UserService> batching = new BatchingProxy<>(UserService.class, blockingDao,
+                MAX_BATCH_SIZE, MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        batching.batch("addUser", blockingDao::addUsers).batch("deleteUser", blockingDao::deleteUsers);
+        UserService service = batching.getProxy();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_THREADS);
+        start = System.nanoTime();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < CALLER_THREADS; t++) {
+            int thread = t;
+            tasks.add(callers.submit(() -> {
+                for (int i = thread; i < ITEMS; i += CALLER_THREADS) {
+                    service.addUser("blocking-" + i);
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        report("阻塞代理（" + CALLER_THREADS + " 线程）", blockingDao.size(), System.nanoTime() - start, blockingDao);
+        callers.shutdown();
+        batching.close();
+        batching.awaitTermination(1, TimeUnit.SECONDS);
+        System.out.println("  " + batching.getBatchers() + "，代理 toString：" + service);
+    }
+
+    private static void report(String name, int items, long nanos, UserDao dao) {
+        System.out.printf("%s：%d 条，耗时 %d ms，吞吐 %.0f 条/s，数据库往返 %d 次%n",
+                name, items, nanos / 1_000_000, items * 1e9 / nanos, dao.getRoundTrips());
+    }
+
+    /**
+     * 模拟的数据库访问：逐条方法和批量方法都是一次往返
+     */
+    static class UserDao implements UserService, BatchUserService {
+        private final Set<String> users = ConcurrentHashMap.newKeySet();
+        private final AtomicLong roundTrips = new AtomicLong();
+
+        @Override
+        public void addUser(String username) {
+            roundTrip();
+            users.add(username);
+        }
+
+        @Override
+        public void deleteUser(String username) {
+            roundTrip();
+            users.remove(username);
+        }
+
+        @Override
+        public List<Boolean> addUsers(List<String> usernames) {
+            roundTrip();
+            List<Boolean> results = new ArrayList<>(usernames.size());
+            for (String username : usernames) {
+                results.add(users.add(username));
+            }
+            return results;
+        }
+
+        @Override
+        public List<Boolean> deleteUsers(List<String> usernames) {
+            roundTrip();
+            List<Boolean> results = new ArrayList<>(usernames.size());
+            for (String username : usernames) {
+                results.add(users.remove(username));
+            }
+            return results;
+        }
+
+        int size() {
+            return users.size();
+        }
+
+        long getRoundTrips() {
+            return roundTrips.get();
+        }
+
+        private void roundTrip() {
+            roundTrips.incrementAndGet();
+            LockSupport.parkNanos(ROUND_TRIP_NANOS);
+        }
+    }
+}
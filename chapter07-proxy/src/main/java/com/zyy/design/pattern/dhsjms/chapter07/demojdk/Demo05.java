@@ -0,0 +1,139 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache.Cacheable;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache.CachingProxy;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.user.UserQueryService;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 缓存代理演示：注解开启缓存、并发未命中只查询一次、冷门键扫描挤不掉热点、过期后重新加载，最后打印统计
+ */
+public class Demo05 {
+
+    private static final int THREADS = 16;
+    private static final int HOT_KEYS = 50;
+    private static final int SCAN_KEYS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        // 1. 标了 @Cacheable 的方法按参数缓存，countUsers 每次都查询
+        UserQueryDao dao = new UserQueryDao();
+        CachingProxy<UserQueryService> caching = new CachingProxy<>(UserQueryService.class, dao);
+        UserQueryService service = caching.getProxy();
+        System.out.println("张三的昵称：" + service.findNickname("张三") + "，再查一次：" + service.findNickname("张三"));
+        System.out.println("张三是 A 租户管理员：" + service.isAdmin("A", "张三") + "，B 租户：" + service.isAdmin("B", "张三")
+                + "，再查 A 租户：" + service.isAdmin("A", "张三"));
+        System.out.println("用户数：" + service.countUsers() + "，" + service.countUsers() + "；数据库查询 " + dao.queries + " 次");
+
+        // 2. 同一个键同时未命中，只有一个线程查询数据库
+        int before = dao.queries.get();
+        CountDownLatch ready = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                service.findNickname("李四");
+            });
+            threads[i].start();
+        }
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println(THREADS + " 个线程同时查询李四，数据库查询 " + (dao.queries.get() - before) + " 次");
+        printStats(caching.stats());
+
+        // 3. 热点键访问多次之后扫描大量冷门键，扫描期间热点仍有少量访问，热点留在缓存中
+        //    访问计数会定期减半，完全没有访问的热点最终也会被挤掉
+        Ranking ranking = new Ranking();
+        CachingProxy<RankingService> rankingCaching = new CachingProxy<>(RankingService.class, ranking);
+        RankingService rankingService = rankingCaching.getProxy();
+        for (int round = 0; round < 20; round++) {
+            for (int id = 0; id < HOT_KEYS; id++) {
+                rankingService.rank(id);
+            }
+        }
+        for (int id = 0; id < SCAN_KEYS; id++) {
+            rankingService.rank(1_000_000 + id);
+            if (id % 5 == 0) {
+                rankingService.rank(id / 5 % HOT_KEYS);
+            }
+        }
+        int loads = ranking.loads;
+        for (int id = 0; id < HOT_KEYS; id++) {
+            rankingService.rank(id);
+        }
+        System.out.println("扫描 " + SCAN_KEYS + " 个冷门键之后，" + HOT_KEYS + " 个热点键重新加载 "
+                + (ranking.loads - loads) + " 次");
+
+        // 4. 过期之后重新加载
+        TimeUnit.MILLISECONDS.sleep(RankingService.TTL_MILLIS + 50);
+        loads = ranking.loads;
+        rankingService.rank(0);
+        rankingService.rank(0);
+        System.out.println("过期之后查询两次，重新加载 " + (ranking.loads - loads) + " 次");
+        printStats(rankingCaching.stats());
+    }
+
+    private static void printStats(Map<String, ?> stats) {
+        stats.forEach((name, value) -> System.out.println("  " + name + "：" + value));
+    }
+
+    /**
+     * 模拟的数据库查询，每次约 1 毫秒
+     */
+    static class UserQueryDao implements UserQueryService {
+        private final AtomicInteger queries = new AtomicInteger();
+
+        @Override
+        public String findNickname(String username) {
+            query();
+            return "小" + username.charAt(username.length() - 1);
+        }
+
+        @Override
+        public boolean isAdmin(String tenant, String username) {
+            query();
+            return "A".equals(tenant);
+        }
+
+        @Override
+        public int countUsers() {
+            query();
+            return 42;
+        }
+
+        private void query() {
+            queries.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * 容量只有 100 的缓存
+     */
+    public interface RankingService {
+        long TTL_MILLIS = 200;
+
+        @Cacheable(maximumSize = 100, ttl = TTL_MILLIS, unit = TimeUnit.MILLISECONDS)
+        int rank(int userId);
+    }
+
+    static class Ranking implements RankingService {
+        private int loads;
+
+        @Override
+        public int rank(int userId) {
+            loads++;
+            return userId % 997;
+        }
+    }
+}
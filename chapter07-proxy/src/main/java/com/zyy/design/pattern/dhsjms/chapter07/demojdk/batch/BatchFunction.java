@@ -0,0 +1,17 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.batch;
+
+import java.util.List;
+
+/**
+ * 批量目标方法：一次处理一批参数
+ *
+ * 返回的结果与参数一一对应、顺序相同，第 i 个结果交给第 i 个调用者；
+ * 目标方法没有返回值时可以返回 null，所有调用者都得到 null；
+ * 抛出异常时这一批的所有调用者都以该异常失败
+ */
+@FunctionalInterface
+public interface BatchFunction<A, R> {
+
+    List<R> apply(List<A> items) throws Exception;
+
+}
@@ -0,0 +1,179 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.batch;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.MethodHandleInvocationHandler;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微批代理：调用者仍然逐条调用接口方法，代理把同一方法的调用攒成一批，交给批量目标方法一次处理
+ *
+ * 1. 用 {@link #batch} 把接口方法绑定到批量方法，每个方法一个 {@link MicroBatcher}，窗口大小和等待时间由构造方法指定
+ * 2. 方法只有一个参数时，这个参数就是批量方法的一项；多个参数时，一项是参数数组
+ * 3. 返回 CompletableFuture（或 CompletionStage、Future）的方法立即返回这次调用自己的 future；
+ *    其他方法阻塞到所在批次处理完，返回自己的结果，批量方法的异常原样抛出
+ *    排队的调用超过 {@link MicroBatcher#DEFAULT_QUEUE_CAPACITY} 时以 RejectedExecutionException 失败，异步调用者应限制未完成的数量
+ * 4. 没有绑定的方法转发给 target（经 {@link MethodHandleInvocationHandler}），没有 target 时抛出 UnsupportedOperationException；
+ *    equals、hashCode、toString 由代理自己处理
+ * 阻塞方式只有在多个线程同时调用时才能攒成批；单线程批量导入请使用返回 future 的异步接口
+ */
+public final class BatchingProxy<T> implements InvocationHandler, AutoCloseable {
+
+    private final Class<T> type;
+    private final T proxy;
+    private final InvocationHandler direct;
+    private final int maxBatchSize;
+    private final long maxDelay;
+    private final TimeUnit unit;
+    // 绑定在创建代理之后、使用之前完成，写入时复制
+    private volatile Map<Method, Binding> bindings = new HashMap<>();
+
+    /**
+     * @param target 处理未绑定方法的对象，可以为 null
+     */
+    public BatchingProxy(Class<T> type, Object target, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName() + " 不是接口");
+        }
+        this.type = type;
+        this.direct = target == null ? null : new MethodHandleInvocationHandler(target);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.unit = Objects.requireNonNull(unit, "unit");
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+    }
+
+    /**
+     * 把接口中名为 methodName 的方法（不能有重载）绑定到批量方法
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <A, R> BatchingProxy<T> batch(String methodName, BatchFunction<A, R> function) {
+        Method method = findMethod(methodName);
+        if (bindings.containsKey(method)) {
+            throw new IllegalStateException(methodName + " 已经绑定");
+        }
+        MicroBatcher<Object, Object> batcher = new MicroBatcher<>(type.getSimpleName() + "." + methodName,
+                (BatchFunction<Object, Object>) function, maxBatchSize, maxDelay, unit);
+        Class<?> returnType = method.getReturnType();
+        boolean async = returnType == CompletableFuture.class || returnType == CompletionStage.class
+                || returnType == Future.class;
+        Map<Method, Binding> copy = new HashMap<>(bindings);
+        copy.put(method, new Binding(batcher, async));
+        bindings = copy;
+        return this;
+    }
+
+    public T getProxy() {
+        return proxy;
+    }
+
+    /**
+     * 各方法的批处理统计
+     */
+    public List<MicroBatcher<?, ?>> getBatchers() {
+        List<MicroBatcher<?, ?>> batchers = new ArrayList<>();
+        for (Binding binding : bindings.values()) {
+            batchers.add(binding.batcher);
+        }
+        return batchers;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Binding binding = bindings.get(method);
+        if (binding == null) {
+            return invokeDirect(proxy, method, args);
+        }
+        Object item = args == null ? null : args.length == 1 ? args[0] : args;
+        CompletableFuture<Object> future = binding.batcher.submit(item);
+        if (binding.async) {
+            return future;
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 关闭所有方法的批处理器，已提交的调用仍会处理完
+     */
+    @Override
+    public synchronized void close() {
+        for (Binding binding : bindings.values()) {
+            binding.batcher.close();
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Binding binding : bindings.values()) {
+            long remaining = deadline - System.nanoTime();
+            if (!binding.batcher.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchingProxy[" + type.getName() + "]";
+    }
+
+    private Object invokeDirect(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return toString();
+            }
+        }
+        if (direct == null) {
+            throw new UnsupportedOperationException(method.getName() + " 没有绑定批量方法，也没有目标对象");
+        }
+        return direct.invoke(proxy, method, args);
+    }
+
+    private Method findMethod(String methodName) {
+        Method found = null;
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                if (found != null) {
+                    throw new IllegalArgumentException(type.getName() + "." + methodName + " 有重载，无法按名称绑定");
+                }
+                found = method;
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException(type.getName() + " 没有方法 " + methodName);
+        }
+        return found;
+    }
+
+    private static final class Binding {
+        private final MicroBatcher<Object, Object> batcher;
+        // 返回 future 的方法不等待结果
+        private final boolean async;
+
+        private Binding(MicroBatcher<Object, Object> batcher, boolean async) {
+            this.batcher = batcher;
+            this.async = async;
+        }
+    }
+}
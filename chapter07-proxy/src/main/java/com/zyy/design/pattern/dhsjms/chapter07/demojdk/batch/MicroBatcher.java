@@ -0,0 +1,231 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微批处理器：把逐条提交的参数攒成一批，交给 {@link BatchFunction} 一次处理
+ *
+ * 1. 一个刷新线程从队列取参数，从这一批第一条参数提交时算起，最多等待 maxDelay，
+ *    攒够 maxBatchSize 条立即刷新；刷新线程忙于上一批时，新提交的参数继续排队，下一批自然变大
+ * 2. 每条参数对应一个 CompletableFuture，批量方法返回后用各自的结果完成
+ * 3. 依赖 future 的回调默认在刷新线程中执行，不要在回调里做耗时操作
+ * 4. close 之后不再接受新参数，已提交的参数全部刷新后刷新线程退出；刷新线程被中断时同样处理
+ * 5. 排队的参数有上限，批量方法跟不上提交速度、队列已满时新参数直接失败，不会无限占用内存
+ */
+public class MicroBatcher<A, R> implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    private final String name;
+    private final BatchFunction<A, R> function;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending<A, R>> queue;
+    // 关闭标记，放进队列唤醒等待中的刷新线程；队列已满时放不进去，刷新线程取下一条之前也会检查 closed
+    private final Pending<A, R> poison = new Pending<>(null, 0L);
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    // 只由刷新线程写
+    private volatile long batchCount;
+    private volatile long itemCount;
+    private volatile long failedBatchCount;
+
+    public MicroBatcher(String name, BatchFunction<A, R> function, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        this(name, function, maxBatchSize, maxDelay, unit, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity 最多排队的参数数，满了以后 submit 返回失败的 future
+     */
+    public MicroBatcher(String name, BatchFunction<A, R> function, int maxBatchSize, long maxDelay, TimeUnit unit,
+                        int queueCapacity) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize 必须大于 0：" + maxBatchSize);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity 必须大于 0：" + queueCapacity);
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maxDelay 不能为负数：" + maxDelay);
+        }
+        this.name = Objects.requireNonNull(name, "name");
+        this.function = Objects.requireNonNull(function, "function");
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::run, "batch-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 提交一条参数，返回的 future 在这条参数所在的批次处理完之后完成
+     */
+    public CompletableFuture<R> submit(A item) {
+        Pending<A, R> pending = new Pending<>(item, System.nanoTime());
+        if (closed) {
+            return pending.reject(name + " 已关闭");
+        }
+        if (!queue.offer(pending)) {
+            return pending.reject(name + " 排队的参数已满");
+        }
+        // 与 close 竞争：刷新线程可能已经退出，没被取走的参数由这里拒绝
+        if (closed && queue.remove(pending)) {
+            return pending.reject(name + " 已关闭");
+        }
+        return pending;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            queue.offer(poison);
+        }
+    }
+
+    /**
+     * 等待刷新线程处理完已提交的参数
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        flusher.join(Math.max(1L, unit.toMillis(timeout)));
+        return !flusher.isAlive();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatchCount;
+    }
+
+    @Override
+    public String toString() {
+        long batches = batchCount;
+        long items = itemCount;
+        return String.format("%s：批次 %d，条目 %d，平均每批 %.1f 条，失败批次 %d",
+                name, batches, items, batches == 0 ? 0.0 : (double) items / batches, failedBatchCount);
+    }
+
+    private void run() {
+        List<Pending<A, R>> batch = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        while (true) {
+            Pending<A, R> next;
+            stopping |= closed;
+            try {
+                if (stopping) {
+                    // 关闭后不再等待，队列里剩下的参数直接刷新
+                    next = queue.poll();
+                } else if (batch.isEmpty()) {
+                    next = queue.take();
+                } else {
+                    next = poll(batch.get(0).enqueuedAt + maxDelayNanos);
+                }
+            } catch (InterruptedException e) {
+                // 被中断后不再接受新参数，与 close 一样刷新完剩下的参数再退出
+                closed = true;
+                stopping = true;
+                continue;
+            }
+            if (next == poison) {
+                stopping = true;
+                continue;
+            }
+            if (next != null) {
+                batch.add(next);
+                if (batch.size() < maxBatchSize) {
+                    continue;
+                }
+            }
+            // 攒够了、窗口到期了，或者已经关闭且队列为空
+            if (batch.isEmpty()) {
+                break;
+            }
+            flush(batch);
+            batch.clear();
+        }
+        // 退出前拒绝最后一次取队列之后才放进来的参数，它们不会再有线程处理
+        closed = true;
+        Pending<A, R> left;
+        while ((left = queue.poll()) != null) {
+            if (left != poison) {
+                left.reject(name + " 已关闭");
+            }
+        }
+    }
+
+    /**
+     * 队列里有参数时直接取，没有时最多等到 deadline
+     */
+    private Pending<A, R> poll(long deadline) throws InterruptedException {
+        Pending<A, R> next = queue.poll();
+        if (next != null) {
+            return next;
+        }
+        long wait = deadline - System.nanoTime();
+        return wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+    }
+
+    private void flush(List<Pending<A, R>> batch) {
+        int size = batch.size();
+        List<A> items = new ArrayList<>(size);
+        for (Pending<A, R> pending : batch) {
+            items.add(pending.item);
+        }
+        List<R> results;
+        try {
+            results = function.apply(items);
+            if (results != null && results.size() != size) {
+                throw new IllegalStateException(name + " 批量方法返回 " + results.size() + " 个结果，应为 " + size);
+            }
+        } catch (Throwable e) {
+            // 异常不能让刷新线程退出，否则之后的调用者永远等不到结果
+            failedBatchCount++;
+            for (Pending<A, R> pending : batch) {
+                pending.completeExceptionally(e);
+            }
+            return;
+        }
+        batchCount++;
+        itemCount += size;
+        for (int i = 0; i < size; i++) {
+            batch.get(i).complete(results == null ? null : results.get(i));
+        }
+    }
+
+    /**
+     * 排队中的一条参数，本身就是返回给调用者的 future，少创建一个对象
+     */
+    private static final class Pending<A, R> extends CompletableFuture<R> {
+        private final A item;
+        private final long enqueuedAt;
+
+        private Pending(A item, long enqueuedAt) {
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        private CompletableFuture<R> reject(String message) {
+            completeExceptionally(new RejectedExecutionException(message));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有容量上限、按写入时间过期的缓存
+ *
+ * 1. 读取不加锁：ConcurrentHashMap 查找，同时在 {@link FrequencySketch} 中记一次访问
+ * 2. 淘汰顺序是先进先出，满了以后新条目与最早的条目比较访问频率（TinyLFU 准入）：
+ *    新条目更频繁时淘汰旧条目，否则新条目不放进缓存，旧条目移到队尾（第二次机会），
+ *    只被访问一两次的键挤不掉热点；过期的条目直接淘汰
+ * 3. 同一个键同时未命中时只有一个线程调用加载方法，其他线程等待它的结果或异常（single-flight）；
+ *    加载失败的结果不缓存
+ * 4. 过期时间按 {@link CoarseClock} 计算，命中时不调用 System.nanoTime()
+ * 5. invalidateAll 之前开始的加载，结果只返回给当时等待的线程，不会写入缓存
+ */
+public final class BoundedCache<K, V> {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final FrequencySketch sketch;
+    private final ConcurrentHashMap<K, Entry<K, V>> data;
+    // 淘汰顺序，与 data 的修改都在 order 的锁内进行
+    private final LinkedHashMap<K, Entry<K, V>> order = new LinkedHashMap<>();
+    // 正在加载的键
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    // 每次 invalidateAll 加一，加载完成时与开始时不同说明结果可能已经失效
+    private volatile long generation;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    // 以下计数在 order 的锁内修改
+    private long evictionCount;
+    private long rejectionCount;
+    private long expirationCount;
+
+    /**
+     * @param ttl 写入后的存活时间，0 表示不过期
+     */
+    public BoundedCache(int maximumSize, long ttl, TimeUnit unit) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize 必须大于 0：" + maximumSize);
+        }
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl 不能为负数：" + ttl);
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.sketch = new FrequencySketch(maximumSize);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+    }
+
+    /**
+     * 返回缓存的值，没有或已过期时调用 loader 加载；loader 抛出的异常原样抛出
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader) throws Throwable {
+        sketch.increment(key);
+        Entry<K, V> entry = data.get(key);
+        if (entry != null && !isExpired(entry)) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        long startGeneration = generation;
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            coalescedCount.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            // 另一个线程可能在我们查找之后刚加载完
+            entry = data.get(key);
+            if (entry != null && !isExpired(entry)) {
+                mine.complete(entry.value);
+                return entry.value;
+            }
+            long start = System.nanoTime();
+            V value;
+            try {
+                value = loader.load(key);
+            } catch (Throwable e) {
+                totalLoadNanos.add(System.nanoTime() - start);
+                loadFailureCount.increment();
+                mine.completeExceptionally(e);
+                throw e;
+            }
+            totalLoadNanos.add(System.nanoTime() - start);
+            loadSuccessCount.increment();
+            // 先唤醒等待的线程，再写入缓存；写入之前新来的线程仍会等到 mine
+            mine.complete(value);
+            put(key, value, startGeneration);
+            return value;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (order) {
+            generation++;
+            order.clear();
+            data.clear();
+            // 之后的未命中重新加载，不再等待失效之前开始的加载
+            loading.clear();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public CacheStats stats() {
+        synchronized (order) {
+            return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                    totalLoadNanos.sum(), coalescedCount.sum(), evictionCount, rejectionCount, expirationCount,
+                    data.size());
+        }
+    }
+
+    private void put(K key, V value, long startGeneration) {
+        long now = CoarseClock.nanoTime();
+        Entry<K, V> candidate = new Entry<>(key, value, now);
+        synchronized (order) {
+            if (generation != startGeneration) {
+                // 加载期间缓存被清空，值可能是失效之前的数据
+                return;
+            }
+            Entry<K, V> current = order.get(key);
+            if (current != null) {
+                // 替换过期的条目，保留它在队列中的位置
+                if (isExpired(current, now)) {
+                    expirationCount++;
+                }
+                order.put(key, candidate);
+                data.put(key, candidate);
+                return;
+            }
+            while (order.size() >= maximumSize) {
+                Iterator<Entry<K, V>> iterator = order.values().iterator();
+                Entry<K, V> victim = iterator.next();
+                iterator.remove();
+                if (isExpired(victim, now)) {
+                    data.remove(victim.key);
+                    expirationCount++;
+                } else if (sketch.frequency(key) > sketch.frequency(victim.key)) {
+                    data.remove(victim.key);
+                    evictionCount++;
+                } else {
+                    order.put(victim.key, victim);
+                    rejectionCount++;
+                    return;
+                }
+            }
+            order.put(key, candidate);
+            data.put(key, candidate);
+        }
+    }
+
+    private boolean isExpired(Entry<K, V> entry) {
+        return ttlNanos > 0 && isExpired(entry, CoarseClock.nanoTime());
+    }
+
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return ttlNanos > 0 && now - entry.writtenAt >= ttlNanos;
+    }
+
+    /**
+     * 未命中时调用的加载方法
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws Throwable;
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long writtenAt;
+
+        private Entry(K key, V value, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
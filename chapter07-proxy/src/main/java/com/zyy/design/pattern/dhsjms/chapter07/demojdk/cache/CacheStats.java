@@ -0,0 +1,94 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache;
+
+/**
+ * 缓存统计的快照
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadNanos;
+    private final long coalescedCount;
+    private final long evictionCount;
+    private final long rejectionCount;
+    private final long expirationCount;
+    private final int size;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadNanos,
+               long coalescedCount, long evictionCount, long rejectionCount, long expirationCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadNanos = totalLoadNanos;
+        this.coalescedCount = coalescedCount;
+        this.evictionCount = evictionCount;
+        this.rejectionCount = rejectionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    // 实际调用目标方法的次数
+    public long getLoadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public long getTotalLoadNanos() {
+        return totalLoadNanos;
+    }
+
+    public double getAverageLoadNanos() {
+        long loads = getLoadCount();
+        return loads == 0 ? 0.0 : (double) totalLoadNanos / loads;
+    }
+
+    // 未命中但等待了其他线程正在进行的加载，没有调用目标方法的次数
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    // 为新条目腾出位置而淘汰的条目数
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    // 访问频率不如淘汰候选、没有放进缓存的新条目数
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("命中 %d，未命中 %d（合并 %d），命中率 %.1f%%，加载 %d 次（失败 %d，平均 %.1f µs），"
+                        + "条目 %d，淘汰 %d，拒绝 %d，过期 %d",
+                hitCount, missCount, coalescedCount, getHitRate() * 100, getLoadCount(), loadFailureCount,
+                getAverageLoadNanos() / 1000, size, evictionCount, rejectionCount, expirationCount);
+    }
+}
@@ -0,0 +1,28 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标在接口方法上，{@link CachingProxy} 按参数缓存该方法的返回值
+ *
+ * 缓存的返回值会被多个调用者共享，方法应当返回不可变对象；没有返回值的方法不能缓存
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+    // 最多缓存多少组参数的结果
+    int maximumSize() default 1000;
+
+    // 写入后的存活时间，0 表示不过期
+    long ttl() default 60;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+}
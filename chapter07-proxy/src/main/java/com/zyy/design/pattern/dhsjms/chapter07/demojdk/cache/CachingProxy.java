@@ -0,0 +1,194 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle.MethodHandleInvocationHandler;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 缓存代理：接口中标了 {@link Cacheable} 的方法按参数缓存返回值，每个方法一个 {@link BoundedCache}
+ *
+ * 1. 只看接口方法上的注解，实现类上的注解不起作用
+ * 2. 一个参数时参数本身就是键，多个参数或数组参数按内容比较；数组参数会复制一份，调用者之后修改数组不影响缓存，
+ *    其他参数应当是不可变对象
+ * 3. 未命中时经 {@link MethodHandleInvocationHandler} 调用目标方法，目标方法的异常原样抛出且不缓存
+ * 4. 没有注解的方法（包括 equals、hashCode、toString）直接转发给目标对象
+ */
+public final class CachingProxy<T> implements InvocationHandler {
+
+    // 没有参数和参数为 null 时的键
+    private static final Object NO_ARGS = new Object();
+    private static final Object NULL_ARG = new Object();
+
+    private final T proxy;
+    private final InvocationHandler direct;
+    // 创建之后不再修改
+    private final Map<Method, CachedMethod> cachedMethods = new HashMap<>();
+
+    public CachingProxy(Class<T> type, T target) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName() + " 不是接口");
+        }
+        this.direct = new MethodHandleInvocationHandler(Objects.requireNonNull(target, "target"));
+        for (Method method : type.getMethods()) {
+            Cacheable cacheable = method.getAnnotation(Cacheable.class);
+            if (cacheable == null) {
+                continue;
+            }
+            if (method.getReturnType() == void.class) {
+                throw new IllegalArgumentException(method + " 没有返回值，不能缓存");
+            }
+            BoundedCache<Object, Object> cache = new BoundedCache<>(cacheable.maximumSize(), cacheable.ttl(),
+                    cacheable.unit());
+            cachedMethods.put(method, new CachedMethod(method, cache, direct));
+        }
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+    }
+
+    public T getProxy() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        CachedMethod cached = cachedMethods.get(method);
+        if (cached == null) {
+            return direct.invoke(proxy, method, args);
+        }
+        return cached.cache.get(keyOf(args), cached.loader);
+    }
+
+    /**
+     * 方法名（有重载时带参数类型）-> 该方法的缓存统计
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        for (CachedMethod cached : cachedMethods.values()) {
+            stats.put(cached.name, cached.cache.stats());
+        }
+        return stats;
+    }
+
+    public void invalidateAll() {
+        for (CachedMethod cached : cachedMethods.values()) {
+            cached.cache.invalidateAll();
+        }
+    }
+
+    private static Object keyOf(Object[] args) {
+        if (args == null || args.length == 0) {
+            return NO_ARGS;
+        }
+        if (args.length == 1) {
+            Object arg = args[0];
+            if (arg == null) {
+                return NULL_ARG;
+            }
+            if (!arg.getClass().isArray()) {
+                return arg;
+            }
+        }
+        // 代理每次调用都会创建新的参数数组，可以直接持有；其中的数组属于调用者，需要复制
+        return new ArgumentsKey(copyArrays(args));
+    }
+
+    private static Object[] argsOf(Object key) {
+        if (key == NO_ARGS) {
+            return null;
+        }
+        if (key == NULL_ARG) {
+            return new Object[]{null};
+        }
+        if (key instanceof ArgumentsKey) {
+            // 目标方法可能修改数组参数，传给它副本，键中的数组保持不变
+            return copyArrays(((ArgumentsKey) key).args);
+        }
+        return new Object[]{key};
+    }
+
+    /**
+     * 深度复制其中的数组，没有数组时返回原数组
+     */
+    private static Object[] copyArrays(Object[] args) {
+        Object[] copy = args;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != null && args[i].getClass().isArray()) {
+                if (copy == args) {
+                    copy = args.clone();
+                }
+                copy[i] = copyArray(args[i]);
+            }
+        }
+        return copy;
+    }
+
+    private static Object copyArray(Object array) {
+        if (array instanceof Object[]) {
+            Object[] elements = ((Object[]) array).clone();
+            for (int i = 0; i < elements.length; i++) {
+                if (elements[i] != null && elements[i].getClass().isArray()) {
+                    elements[i] = copyArray(elements[i]);
+                }
+            }
+            return elements;
+        }
+        // 基本类型数组
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static final class CachedMethod {
+        private final String name;
+        private final BoundedCache<Object, Object> cache;
+        // 每个方法一个加载器，命中时不创建对象
+        private final BoundedCache.Loader<Object, Object> loader;
+
+        private CachedMethod(Method method, BoundedCache<Object, Object> cache, InvocationHandler direct) {
+            this.name = method.getName() + (hasOverloads(method)
+                    ? Arrays.toString(method.getParameterTypes()) : "");
+            this.cache = cache;
+            this.loader = key -> direct.invoke(null, method, argsOf(key));
+        }
+
+        private static boolean hasOverloads(Method method) {
+            for (Method other : method.getDeclaringClass().getMethods()) {
+                if (other != method && !other.equals(method) && other.getName().equals(method.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 多个参数或数组参数的键，按内容比较
+     */
+    private static final class ArgumentsKey {
+        private final Object[] args;
+        private final int hash;
+
+        private ArgumentsKey(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArgumentsKey && Arrays.deepEquals(args, ((ArgumentsKey) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
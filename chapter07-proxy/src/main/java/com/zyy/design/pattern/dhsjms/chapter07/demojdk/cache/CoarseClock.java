@@ -0,0 +1,35 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 每毫秒更新一次的时钟，判断缓存是否过期时代替 System.nanoTime()
+ *
+ * 在一些虚拟机上 System.nanoTime() 一次要几十纳秒，比一次缓存命中的其他开销加起来还多；
+ * 这里由一个守护线程定期更新，读取只是一次 volatile 读，代价是过期时间有 1 毫秒左右的误差
+ */
+final class CoarseClock {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static volatile long now = System.nanoTime();
+
+    static {
+        Thread ticker = new Thread(() -> {
+            while (true) {
+                LockSupport.parkNanos(TICK_NANOS);
+                now = System.nanoTime();
+            }
+        }, "cache-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    static long nanoTime() {
+        return now;
+    }
+}
@@ -0,0 +1,11 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle;
+
+/**
+ * 解析好的方法调用：在 target 上以 args 调用某个固定的方法，void 方法返回 null，基本类型自动装箱
+ */
+@FunctionalInterface
+public interface Invoker {
+
+    Object invoke(Object target, Object[] args) throws Throwable;
+
+}
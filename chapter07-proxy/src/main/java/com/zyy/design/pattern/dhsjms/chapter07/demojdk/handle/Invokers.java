@@ -0,0 +1,240 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 把 Method 解析成 {@link Invoker}
+ *
+ * 1. 不超过 3 个参数的方法：用 LambdaMetafactory 生成一个直接调用目标方法的类，JIT 可以像普通接口调用一样内联
+ * 2. 其他方法，或者生成失败时（例如接口对当前类加载器不可见）：退回到展开参数数组的 MethodHandle，
+ *    生成失败会记录 WARNING 日志并计数（{@link #getFallbackCount()}）
+ * 3. Invoker 与目标对象无关，按声明方法的类缓存（ClassValue），多个代理共用，类卸载时缓存随之回收
+ */
+public final class Invokers {
+
+    static final int MAX_GENERATED_ARITY = 3;
+
+    // 退回方案统一的签名：(目标对象, 参数数组) -> 返回值
+    private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final Logger LOGGER = System.getLogger(Invokers.class.getName());
+
+    // 声明方法的类 -> 该类中已解析的方法
+    private static final ClassValue<Map<Method, Invoker>> CACHE = new ClassValue<Map<Method, Invoker>>() {
+        @Override
+        protected Map<Method, Invoker> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    // 生成失败、退回到 MethodHandle 的方法数
+    private static final LongAdder FALLBACKS = new LongAdder();
+
+    private Invokers() {
+    }
+
+    /**
+     * 返回方法的调用器，同一个方法只解析一次
+     */
+    public static Invoker of(Method method) {
+        return CACHE.get(method.getDeclaringClass()).computeIfAbsent(method, Invokers::resolve);
+    }
+
+    /**
+     * 累计生成失败、退回到 MethodHandle 的方法数
+     */
+    public static long getFallbackCount() {
+        return FALLBACKS.sum();
+    }
+
+    private static Invoker resolve(Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = unreflect(lookup, method);
+        if (method.getParameterCount() <= MAX_GENERATED_ARITY) {
+            if (!isVisible(method)) {
+                // 生成的类由本类的类加载器加载，看不到方法中的类型时要到第一次调用才会失败
+                FALLBACKS.increment();
+                LOGGER.log(Level.DEBUG, "{0} 中的类型对 Invokers 的类加载器不可见，改用 MethodHandle", method);
+            } else {
+                try {
+                    return generate(lookup, method, handle);
+                } catch (LambdaConversionException | RuntimeException | LinkageError e) {
+                    // 生成失败时使用 MethodHandle
+                    FALLBACKS.increment();
+                    LOGGER.log(Level.WARNING, "无法为 " + method + " 生成调用器，改用 MethodHandle", e);
+                }
+            }
+        }
+        MethodHandle spread = handle.asSpreader(Object[].class, method.getParameterCount()).asType(SPREAD_TYPE);
+        return (target, args) -> (Object) spread.invokeExact(target, args);
+    }
+
+    private static boolean isVisible(Method method) {
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisible(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, Invokers.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method) {
+        try {
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            // 非 public 接口中的方法：打开访问权限后再解析
+            try {
+                method.setAccessible(true);
+                return lookup.unreflect(method);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                ex.addSuppressed(e);
+                throw new IllegalStateException("无法解析方法：" + method, ex);
+            }
+        }
+    }
+
+    private static Invoker generate(MethodHandles.Lookup lookup, Method method, MethodHandle handle)
+            throws LambdaConversionException {
+        boolean isVoid = method.getReturnType() == void.class;
+        int arity = method.getParameterCount();
+        Class<?> functionType = isVoid ? VOID_FUNCTIONS[arity] : FUNCTIONS[arity];
+        // 函数接口的签名全部是 Object；实例化签名是目标方法的签名，基本类型换成包装类型，由 LambdaMetafactory 负责拆箱装箱
+        MethodType erased = MethodType.genericMethodType(arity + 1);
+        MethodType instantiated = handle.type().wrap();
+        if (isVoid) {
+            erased = erased.changeReturnType(void.class);
+            instantiated = instantiated.changeReturnType(void.class);
+        }
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(functionType),
+                erased, handle, instantiated);
+        Object function;
+        try {
+            function = site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法创建调用器：" + method, e);
+        }
+        return adapt(function, isVoid, arity);
+    }
+
+    private static Invoker adapt(Object function, boolean isVoid, int arity) {
+        if (isVoid) {
+            switch (arity) {
+                case 0: {
+                    VoidFunction0 f = (VoidFunction0) function;
+                    return (target, args) -> {
+                        f.apply(target);
+                        return null;
+                    };
+                }
+                case 1: {
+                    VoidFunction1 f = (VoidFunction1) function;
+                    return (target, args) -> {
+                        f.apply(target, args[0]);
+                        return null;
+                    };
+                }
+                case 2: {
+                    VoidFunction2 f = (VoidFunction2) function;
+                    return (target, args) -> {
+                        f.apply(target, args[0], args[1]);
+                        return null;
+                    };
+                }
+                default: {
+                    VoidFunction3 f = (VoidFunction3) function;
+                    return (target, args) -> {
+                        f.apply(target, args[0], args[1], args[2]);
+                        return null;
+                    };
+                }
+            }
+        }
+        switch (arity) {
+            case 0: {
+                Function0 f = (Function0) function;
+                return (target, args) -> f.apply(target);
+            }
+            case 1: {
+                Function1 f = (Function1) function;
+                return (target, args) -> f.apply(target, args[0]);
+            }
+            case 2: {
+                Function2 f = (Function2) function;
+                return (target, args) -> f.apply(target, args[0], args[1]);
+            }
+            default: {
+                Function3 f = (Function3) function;
+                return (target, args) -> f.apply(target, args[0], args[1], args[2]);
+            }
+        }
+    }
+
+    private static final Class<?>[] FUNCTIONS = {
+            Function0.class, Function1.class, Function2.class, Function3.class
+    };
+    private static final Class<?>[] VOID_FUNCTIONS = {
+            VoidFunction0.class, VoidFunction1.class, VoidFunction2.class, VoidFunction3.class
+    };
+
+    // LambdaMetafactory 生成的类实现以下接口，第一个参数是目标对象
+
+    interface Function0 {
+        Object apply(Object target);
+    }
+
+    interface Function1 {
+        Object apply(Object target, Object a0);
+    }
+
+    interface Function2 {
+        Object apply(Object target, Object a0, Object a1);
+    }
+
+    interface Function3 {
+        Object apply(Object target, Object a0, Object a1, Object a2);
+    }
+
+    interface VoidFunction0 {
+        void apply(Object target);
+    }
+
+    interface VoidFunction1 {
+        void apply(Object target, Object a0);
+    }
+
+    interface VoidFunction2 {
+        void apply(Object target, Object a0, Object a1);
+    }
+
+    interface VoidFunction3 {
+        void apply(Object target, Object a0, Object a1, Object a2);
+    }
+}
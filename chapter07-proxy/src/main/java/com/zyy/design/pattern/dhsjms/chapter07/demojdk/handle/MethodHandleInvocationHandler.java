@@ -0,0 +1,121 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.handle;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * 基于 MethodHandle 的 InvocationHandler：每个 Method 只在第一次调用时从 {@link Invokers} 取得 {@link Invoker}
+ * 放进本实例的查找表，之后直接调用；解析结果由 {@link Invokers} 全局缓存，新建代理不会重新解析
+ *
+ * 与 method.invoke(target, args) 相比：
+ * 1. 访问检查只在解析时做一次，调用时没有反射的权限检查和参数校验
+ * 2. 参数不多的方法由 LambdaMetafactory 生成直接调用的类，JIT 可以内联到目标方法（见 {@link Invokers}）
+ * 3. 目标方法抛出的异常原样抛出，不会被包装成 InvocationTargetException（再被代理包装成 UndeclaredThrowableException）
+ * 需要增强逻辑时覆盖 {@link #before} 和 {@link #after}
+ */
+public class MethodHandleInvocationHandler implements InvocationHandler {
+
+    // 维护目标对象（被代理对象），构造方法注入
+    private final Object target;
+    // 代理类中每个方法对应的 Method 对象是固定的，按引用查找的开放寻址表；写入时复制整张表
+    private volatile Table table = new Table(new Method[8], new Invoker[8]);
+
+    public MethodHandleInvocationHandler(Object target) {
+        this.target = Objects.requireNonNull(target, "target");
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Invoker invoker = table.get(method);
+        if (invoker == null) {
+            invoker = add(method);
+        }
+        before(method, args);
+        Object result = invoker.invoke(target, args);
+        after(method, result);
+        return result;
+    }
+
+    /**
+     * 调用目标方法之前执行，默认什么都不做
+     */
+    protected void before(Method method, Object[] args) {
+    }
+
+    /**
+     * 目标方法正常返回之后执行，默认什么都不做
+     */
+    protected void after(Method method, Object result) {
+    }
+
+    public Object getTarget() {
+        return target;
+    }
+
+    private synchronized Invoker add(Method method) {
+        Invoker invoker = table.get(method);
+        if (invoker == null) {
+            invoker = Invokers.of(method);
+            table = table.with(method, invoker);
+        }
+        return invoker;
+    }
+
+    /**
+     * 不可变的查找表，装载率不超过一半
+     */
+    private static final class Table {
+        private final Method[] keys;
+        private final Invoker[] values;
+        private final int size;
+
+        private Table(Method[] keys, Invoker[] values) {
+            this.keys = keys;
+            this.values = values;
+            int count = 0;
+            for (Method key : keys) {
+                if (key != null) {
+                    count++;
+                }
+            }
+            this.size = count;
+        }
+
+        private Invoker get(Method method) {
+            int mask = keys.length - 1;
+            int i = System.identityHashCode(method) & mask;
+            Method key;
+            while ((key = keys[i]) != null) {
+                if (key == method) {
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        private Table with(Method method, Invoker invoker) {
+            int capacity = (size + 1) * 2 > keys.length ? keys.length * 2 : keys.length;
+            Method[] newKeys = new Method[capacity];
+            Invoker[] newValues = new Invoker[capacity];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    put(newKeys, newValues, keys[i], values[i]);
+                }
+            }
+            put(newKeys, newValues, method, invoker);
+            return new Table(newKeys, newValues);
+        }
+
+        private static void put(Method[] keys, Invoker[] values, Method method, Invoker invoker) {
+            int mask = keys.length - 1;
+            int i = System.identityHashCode(method) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = method;
+            values[i] = invoker;
+        }
+    }
+}
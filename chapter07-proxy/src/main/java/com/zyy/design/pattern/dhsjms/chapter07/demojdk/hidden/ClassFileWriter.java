@@ -0,0 +1,292 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 最小的 class 文件写入器，只支持生成代理类用到的部分：常量池、字段、不含分支和异常表的方法
+ * 方法体没有跳转，因此不需要 StackMapTable
+ */
+final class ClassFileWriter {
+
+    // Java 17
+    private static final int MAJOR_VERSION = 61;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    // 相同的常量只写一次
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int poolCount = 1;
+
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+
+    int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor);
+    }
+
+    void field(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        write(() -> {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            // 没有属性
+            out.writeShort(0);
+        });
+        fields.add(bytes.toByteArray());
+    }
+
+    /**
+     * 开始一个方法，写完字节码后调用 {@link Code#end}
+     */
+    Code method(int access, String name, String descriptor) {
+        return new Code(access, name, descriptor);
+    }
+
+    byte[] toByteArray(int access, String thisName, String superName, String[] interfaces) {
+        int thisClass = classRef(thisName);
+        int superClass = classRef(superName);
+        int[] interfaceRefs = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceRefs[i] = classRef(interfaces[i]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        write(() -> {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaceRefs.length);
+            for (int ref : interfaceRefs) {
+                out.writeShort(ref);
+            }
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            // 没有类属性
+            out.writeShort(0);
+        });
+        return bytes.toByteArray();
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerRef = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        return constant(tag + owner + '.' + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerRef);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameRef = utf8(name);
+        int descriptorRef = utf8(descriptor);
+        return constant("N" + name + ':' + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameRef);
+            out.writeShort(descriptorRef);
+        });
+    }
+
+    private int constant(String key, Entry entry) {
+        Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        write(() -> entry.write(poolOut));
+        if (poolCount > 0xFFFF) {
+            throw new IllegalStateException("常量池超过 65535 项");
+        }
+        constants.put(key, poolCount);
+        return poolCount++;
+    }
+
+    private static void write(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            // 只写内存，不会发生
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Entry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * 一个方法的字节码
+     */
+    final class Code {
+        private final int access;
+        private final String name;
+        private final String descriptor;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private Code(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        Code op(int opcode) {
+            code.write(opcode);
+            return this;
+        }
+
+        Code op(int opcode, int u1) {
+            code.write(opcode);
+            code.write(u1);
+            return this;
+        }
+
+        Code opU2(int opcode, int u2) {
+            code.write(opcode);
+            code.write(u2 >>> 8);
+            code.write(u2);
+            return this;
+        }
+
+        /**
+         * invokeinterface 还需要参数槽位数（包括接收者）和一个 0
+         */
+        Code invokeInterface(int methodRef, int argSlots) {
+            opU2(Opcodes.INVOKEINTERFACE, methodRef);
+            code.write(argSlots);
+            code.write(0);
+            return this;
+        }
+
+        /**
+         * 把 int 常量压栈
+         */
+        Code pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                return op(Opcodes.ICONST_0 + value);
+            }
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                return op(Opcodes.BIPUSH, value & 0xFF);
+            }
+            return opU2(Opcodes.SIPUSH, value & 0xFFFF);
+        }
+
+        void end(int maxStack, int maxLocals) {
+            byte[] bytecode = code.toByteArray();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            write(() -> {
+                out.writeShort(access);
+                out.writeShort(utf8(name));
+                out.writeShort(utf8(descriptor));
+                out.writeShort(1);
+                out.writeShort(utf8("Code"));
+                out.writeInt(2 + 2 + 4 + bytecode.length + 2 + 2);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(bytecode.length);
+                out.write(bytecode);
+                // 没有异常表，没有属性
+                out.writeShort(0);
+                out.writeShort(0);
+            });
+            methods.add(bytes.toByteArray());
+        }
+    }
+
+    /**
+     * 用到的操作码
+     */
+    static final class Opcodes {
+        static final int ICONST_0 = 0x03;
+        static final int BIPUSH = 0x10;
+        static final int SIPUSH = 0x11;
+        static final int ILOAD = 0x15;
+        static final int LLOAD = 0x16;
+        static final int FLOAD = 0x17;
+        static final int DLOAD = 0x18;
+        static final int ALOAD = 0x19;
+        static final int ALOAD_0 = 0x2A;
+        static final int ALOAD_1 = 0x2B;
+        static final int ALOAD_2 = 0x2C;
+        static final int ALOAD_3 = 0x2D;
+        static final int ISTORE = 0x36;
+        static final int LSTORE = 0x37;
+        static final int FSTORE = 0x38;
+        static final int DSTORE = 0x39;
+        static final int ASTORE = 0x3A;
+        static final int AALOAD = 0x32;
+        static final int IRETURN = 0xAC;
+        static final int LRETURN = 0xAD;
+        static final int FRETURN = 0xAE;
+        static final int DRETURN = 0xAF;
+        static final int ARETURN = 0xB0;
+        static final int RETURN = 0xB1;
+        static final int GETFIELD = 0xB4;
+        static final int PUTFIELD = 0xB5;
+        static final int INVOKEVIRTUAL = 0xB6;
+        static final int INVOKESPECIAL = 0xB7;
+        static final int INVOKEINTERFACE = 0xB9;
+        static final int CHECKCAST = 0xC0;
+
+        private Opcodes() {
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden.ClassFileWriter.Code;
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden.ClassFileWriter.Opcodes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用隐藏类（Lookup.defineHiddenClass）生成代理的工厂
+ *
+ * 1. 每种“接口 + 拦截器类型组合”生成一个实现该接口的类，生成的方法直接调用拦截器和目标对象，
+ *    参数原样传递，不装箱、不创建参数数组；每个调用点只会见到一种拦截器，JIT 可以内联
+ * 2. 生成的类按接口和拦截器类型缓存，之后创建代理只是调用一次构造方法
+ * 3. equals、hashCode、toString 直接转发给目标对象，不经过拦截器
+ * 隐藏类定义在 lookup 所在的包中，接口必须对该包可访问、对其类加载器可见
+ */
+public class HiddenProxyFactory {
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String METHOD_ARRAY = "[Ljava/lang/reflect/Method;";
+    private static final String INTERCEPTOR = Interceptor.class.getName().replace('.', '/');
+    private static final String INTERCEPTOR_DESC = 'L' + INTERCEPTOR + ';';
+    private static final String HOOK_DESC = "(Ljava/lang/reflect/Method;)V";
+    private static final MethodType CONSTRUCTOR_TYPE =
+            MethodType.methodType(void.class, Object.class, Method[].class, Interceptor[].class);
+
+    private final MethodHandles.Lookup lookup;
+    // 接口 -> 拦截器类型组合 -> 生成的代理类
+    private final ClassValue<Map<List<Class<?>>, ProxyClass>> proxyClasses = new ClassValue<>() {
+        @Override
+        protected Map<List<Class<?>>, ProxyClass> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private final AtomicInteger generatedCount = new AtomicInteger();
+
+    /**
+     * 隐藏类定义在本工厂所在的包中，适用于 public 接口
+     */
+    public HiddenProxyFactory() {
+        this(MethodHandles.lookup());
+    }
+
+    /**
+     * 隐藏类定义在 lookup 所在的包中，可以代理该包中的非 public 接口
+     */
+    public HiddenProxyFactory(MethodHandles.Lookup lookup) {
+        if ((lookup.lookupModes() & MethodHandles.Lookup.PACKAGE) == 0) {
+            throw new IllegalArgumentException("lookup 需要包访问权限：" + lookup);
+        }
+        this.lookup = lookup;
+    }
+
+    /**
+     * 创建代理对象；第一次遇到某种接口和拦截器类型组合时生成代理类，之后直接使用缓存
+     * @param type 代理的接口
+     * @param target 目标对象
+     * @param interceptors 拦截器，before 按顺序执行，after 按相反顺序执行
+     */
+    public <T> T create(Class<T> type, T target, Interceptor... interceptors) {
+        Objects.requireNonNull(target, "target");
+        Interceptor[] copy = interceptors.clone();
+        Class<?>[] interceptorTypes = new Class<?>[copy.length];
+        for (int i = 0; i < copy.length; i++) {
+            interceptorTypes[i] = Objects.requireNonNull(copy[i], "interceptor").getClass();
+        }
+        ProxyClass proxyClass = proxyClasses.get(type)
+                .computeIfAbsent(List.of(interceptorTypes), key -> generate(type, key.size()));
+        return type.cast(proxyClass.newInstance(target, copy));
+    }
+
+    /**
+     * 已经生成的代理类数量
+     */
+    public int getGeneratedCount() {
+        return generatedCount.get();
+    }
+
+    private ProxyClass generate(Class<?> type, int interceptorCount) {
+        checkProxyable(type);
+        Method[] methods = proxiedMethods(type);
+        String packagePrefix = lookup.lookupClass().getPackageName().replace('.', '/');
+        String proxyName = (packagePrefix.isEmpty() ? "" : packagePrefix + '/') + type.getSimpleName() + "$$HiddenProxy";
+        String typeName = internalName(type);
+        String typeDesc = 'L' + typeName + ';';
+
+        ClassFileWriter writer = new ClassFileWriter();
+        writer.field(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "target", typeDesc);
+        writer.field(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "methods", METHOD_ARRAY);
+        for (int i = 0; i < interceptorCount; i++) {
+            writer.field(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "interceptor" + i, INTERCEPTOR_DESC);
+        }
+        int targetField = writer.fieldRef(proxyName, "target", typeDesc);
+        int methodsField = writer.fieldRef(proxyName, "methods", METHOD_ARRAY);
+        int[] interceptorFields = new int[interceptorCount];
+        for (int i = 0; i < interceptorCount; i++) {
+            interceptorFields[i] = writer.fieldRef(proxyName, "interceptor" + i, INTERCEPTOR_DESC);
+        }
+        int before = writer.interfaceMethodRef(INTERCEPTOR, "before", HOOK_DESC);
+        int after = writer.interfaceMethodRef(INTERCEPTOR, "after", HOOK_DESC);
+
+        // 构造方法 (Object target, Method[] methods, Interceptor[] interceptors)
+        Code constructor = writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", CONSTRUCTOR_TYPE.toMethodDescriptorString());
+        constructor.op(Opcodes.ALOAD_0).opU2(Opcodes.INVOKESPECIAL, writer.methodRef(OBJECT, "<init>", "()V"));
+        constructor.op(Opcodes.ALOAD_0).op(Opcodes.ALOAD_1).opU2(Opcodes.CHECKCAST, writer.classRef(typeName)).opU2(Opcodes.PUTFIELD, targetField);
+        constructor.op(Opcodes.ALOAD_0).op(Opcodes.ALOAD_2).opU2(Opcodes.PUTFIELD, methodsField);
+        for (int i = 0; i < interceptorCount; i++) {
+            constructor.op(Opcodes.ALOAD_0).op(Opcodes.ALOAD_3).pushInt(i).op(Opcodes.AALOAD).opU2(Opcodes.PUTFIELD, interceptorFields[i]);
+        }
+        constructor.op(Opcodes.RETURN).end(3, 4);
+
+        for (int index = 0; index < methods.length; index++) {
+            Method method = methods[index];
+            String descriptor = MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+                    .toMethodDescriptorString();
+            Code code = writer.method(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL, method.getName(), descriptor);
+            for (int i = 0; i < interceptorCount; i++) {
+                hook(code, interceptorFields[i], methodsField, index, before);
+            }
+            // target.method(参数原样传递)
+            code.op(Opcodes.ALOAD_0).opU2(Opcodes.GETFIELD, targetField);
+            int slot = 1;
+            for (Class<?> parameter : method.getParameterTypes()) {
+                code.op(loadOpcode(parameter), slot);
+                slot += slots(parameter);
+            }
+            int paramSlots = slot - 1;
+            code.invokeInterface(writer.interfaceMethodRef(internalName(method.getDeclaringClass()),
+                    method.getName(), descriptor), 1 + paramSlots);
+            Class<?> returnType = method.getReturnType();
+            int resultSlots = returnType == void.class ? 0 : slots(returnType);
+            if (resultSlots > 0) {
+                code.op(storeOpcode(returnType), slot);
+            }
+            for (int i = interceptorCount - 1; i >= 0; i--) {
+                hook(code, interceptorFields[i], methodsField, index, after);
+            }
+            if (resultSlots > 0) {
+                code.op(loadOpcode(returnType), slot).op(returnOpcode(returnType));
+            } else {
+                code.op(Opcodes.RETURN);
+            }
+            if (slot + resultSlots > 0xFF) {
+                throw new IllegalArgumentException("方法参数过多：" + method);
+            }
+            code.end(Math.max(3, Math.max(1 + paramSlots, resultSlots)), slot + resultSlots);
+        }
+
+        forwardObjectMethod(writer, targetField, "toString", "()Ljava/lang/String;", false, Opcodes.ARETURN);
+        forwardObjectMethod(writer, targetField, "hashCode", "()I", false, Opcodes.IRETURN);
+        forwardObjectMethod(writer, targetField, "equals", "(Ljava/lang/Object;)Z", true, Opcodes.IRETURN);
+
+        byte[] bytes = writer.toByteArray(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER,
+                proxyName, OBJECT, new String[]{typeName});
+        try {
+            MethodHandles.Lookup hidden = lookup.defineHiddenClass(bytes, true);
+            MethodHandle handle = hidden.findConstructor(hidden.lookupClass(), CONSTRUCTOR_TYPE)
+                    .asType(MethodType.methodType(Object.class, Object.class, Method[].class, Interceptor[].class));
+            generatedCount.incrementAndGet();
+            return new ProxyClass(handle, methods);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("无法生成代理类：" + type.getName(), e);
+        }
+    }
+
+    /**
+     * interceptor.before/after(methods[index])
+     */
+    private static void hook(Code code, int interceptorField, int methodsField, int index, int hook) {
+        code.op(Opcodes.ALOAD_0).opU2(Opcodes.GETFIELD, interceptorField)
+                .op(Opcodes.ALOAD_0).opU2(Opcodes.GETFIELD, methodsField)
+                .pushInt(index).op(Opcodes.AALOAD)
+                .invokeInterface(hook, 2);
+    }
+
+    private static void forwardObjectMethod(ClassFileWriter writer, int targetField, String name, String descriptor,
+                                            boolean hasArgument, int returnOpcode) {
+        Code code = writer.method(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL, name, descriptor);
+        code.op(Opcodes.ALOAD_0).opU2(Opcodes.GETFIELD, targetField);
+        if (hasArgument) {
+            code.op(Opcodes.ALOAD_1);
+        }
+        code.opU2(Opcodes.INVOKEVIRTUAL, writer.methodRef(OBJECT, name, descriptor)).op(returnOpcode);
+        code.end(2, hasArgument ? 2 : 1);
+    }
+
+    private void checkProxyable(Class<?> type) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException("只能代理接口：" + type.getName());
+        }
+        try {
+            lookup.accessClass(type);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("接口对 " + lookup.lookupClass().getPackageName() + " 不可访问：" + type.getName(), e);
+        }
+        ClassLoader loader = lookup.lookupClass().getClassLoader();
+        for (Class<?> required : new Class<?>[]{type, Interceptor.class}) {
+            try {
+                if (Class.forName(required.getName(), false, loader) != required) {
+                    throw new IllegalArgumentException("类加载器中的同名类不是同一个类：" + required.getName());
+                }
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("类对 lookup 的类加载器不可见：" + required.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 需要实现的方法：接口及父接口中的实例方法，按名称和描述符去重；Object 的三个方法单独转发
+     */
+    private static Method[] proxiedMethods(Class<?> type) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            if (!Modifier.isAbstract(method.getModifiers()) && (method.isBridge() || method.isSynthetic())) {
+                continue;
+            }
+            String key = method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+                    .toMethodDescriptorString();
+            methods.putIfAbsent(key, method);
+        }
+        return methods.values().toArray(new Method[0]);
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        switch (method.getName()) {
+            case "toString":
+            case "hashCode":
+                return method.getParameterCount() == 0;
+            case "equals":
+                return Arrays.equals(method.getParameterTypes(), new Class<?>[]{Object.class});
+            default:
+                return false;
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return Opcodes.ALOAD;
+        }
+        if (type == long.class) {
+            return Opcodes.LLOAD;
+        }
+        if (type == float.class) {
+            return Opcodes.FLOAD;
+        }
+        if (type == double.class) {
+            return Opcodes.DLOAD;
+        }
+        return Opcodes.ILOAD;
+    }
+
+    private static int storeOpcode(Class<?> type) {
+        // xLOAD 与 xSTORE 的操作码按相同顺序排列
+        return loadOpcode(type) - Opcodes.ILOAD + Opcodes.ISTORE;
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return Opcodes.ARETURN;
+        }
+        if (type == long.class) {
+            return Opcodes.LRETURN;
+        }
+        if (type == float.class) {
+            return Opcodes.FRETURN;
+        }
+        if (type == double.class) {
+            return Opcodes.DRETURN;
+        }
+        return Opcodes.IRETURN;
+    }
+
+    /**
+     * 生成好的代理类：构造方法和代理的方法列表（所有实例共享）
+     */
+    private static final class ProxyClass {
+        private final MethodHandle constructor;
+        private final Method[] methods;
+
+        private ProxyClass(MethodHandle constructor, Method[] methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+
+        private Object newInstance(Object target, Interceptor[] interceptors) {
+            try {
+                return (Object) constructor.invokeExact(target, methods, interceptors);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
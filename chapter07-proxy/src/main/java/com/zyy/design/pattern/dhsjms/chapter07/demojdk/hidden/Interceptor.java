@@ -0,0 +1,25 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.hidden;
+
+import java.lang.reflect.Method;
+
+/**
+ * 生成的代理类在调用目标方法前后回调的拦截器
+ *
+ * 为了调用时不装箱、不创建参数数组，拦截器只能拿到被调用的方法，拿不到参数和返回值；
+ * 需要参数的增强逻辑请使用 JDK 代理 + MethodHandleInvocationHandler
+ */
+public interface Interceptor {
+
+    /**
+     * 调用目标方法之前执行
+     */
+    default void before(Method method) {
+    }
+
+    /**
+     * 目标方法正常返回之后执行；目标方法抛出异常时不会执行
+     */
+    default void after(Method method) {
+    }
+
+}
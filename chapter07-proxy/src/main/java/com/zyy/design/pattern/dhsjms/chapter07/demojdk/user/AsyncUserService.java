@@ -0,0 +1,16 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.user;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步的用户服务：调用立即返回，future 完成时得到这一次调用的结果
+ */
+public interface AsyncUserService {
+
+    // 新增用户，结果表示是否新增成功
+    CompletableFuture<Boolean> addUser(String username);
+
+    // 删除用户，结果表示是否删除成功
+    CompletableFuture<Boolean> deleteUser(String username);
+
+}
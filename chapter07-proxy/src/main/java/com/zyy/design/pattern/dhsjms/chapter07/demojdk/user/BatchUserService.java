@@ -0,0 +1,16 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.user;
+
+import java.util.List;
+
+/**
+ * 支持批量操作的用户服务，一批只需要一次数据库往返
+ */
+public interface BatchUserService {
+
+    // 批量新增用户，按顺序返回每个用户是否新增成功（已存在的返回 false）
+    List<Boolean> addUsers(List<String> usernames);
+
+    // 批量删除用户，按顺序返回每个用户是否删除成功（不存在的返回 false）
+    List<Boolean> deleteUsers(List<String> usernames);
+
+}
@@ -0,0 +1,23 @@
+package com.zyy.design.pattern.dhsjms.chapter07.demojdk.user;
+
+import com.zyy.design.pattern.dhsjms.chapter07.demojdk.cache.Cacheable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读多写少的用户查询服务，经 CachingProxy 代理时标注的方法会被缓存
+ */
+public interface UserQueryService {
+
+    // 查询用户昵称
+    @Cacheable(maximumSize = 1000, ttl = 30, unit = TimeUnit.SECONDS)
+    String findNickname(String username);
+
+    // 查询用户在某个租户下是否是管理员
+    @Cacheable(maximumSize = 200, ttl = 5, unit = TimeUnit.SECONDS)
+    boolean isAdmin(String tenant, String username);
+
+    // 统计用户数，每次都查询
+    int countUsers();
+
+}
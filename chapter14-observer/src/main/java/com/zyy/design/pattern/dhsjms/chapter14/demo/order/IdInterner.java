@@ -0,0 +1,43 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order;
+
+/**
+ * 编号驻留表：相同内容的订单号、用户ID只保留一个 String 实例，缓冲区中大量事件引用同一个对象
+ *
+ * 直接映射的定长缓存：按哈希落到一个槽位，内容相同就返回缓存的实例，否则用新实例替换。
+ * 内存占用固定，不加锁（并发替换只会少命中一次，不影响正确性），命中和未命中都不创建对象
+ */
+public final class IdInterner {
+
+    // 订单号会在整个生命周期内反复出现（已付款、待发货、已发货……）
+    public static final IdInterner ORDER_IDS = new IdInterner(1 << 16);
+    // 用户ID 数量少、重复多
+    public static final IdInterner USER_IDS = new IdInterner(1 << 12);
+
+    private final String[] slots;
+    private final int mask;
+
+    /**
+     * @param capacity 槽位数，必须是 2 的幂
+     */
+    public IdInterner(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("容量必须是 2 的幂：" + capacity);
+        }
+        this.slots = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public String intern(String id) {
+        if (id == null) {
+            return null;
+        }
+        int hash = id.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String cached = slots[index];
+        if (cached != null && (cached == id || cached.equals(id))) {
+            return cached;
+        }
+        slots[index] = id;
+        return id;
+    }
+}
@@ -0,0 +1,24 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order;
+
+/**
+ * 可复用的订单状态事件，由环形缓冲区预先创建，发布时只填充字段
+ *
+ * 事件对象在观察者返回后会被下一次发布覆盖，观察者如果要在回调之外保留事件，需要先调用 {@link #copy()}
+ */
+public class MutableOrderStatusEvent extends OrderStatusEvent {
+
+    public MutableOrderStatusEvent() {
+        super();
+    }
+
+    public void set(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId, long changeTimeMillis) {
+        reset(orderId, oldStatus, newStatus, userId, changeTimeMillis);
+    }
+
+    /**
+     * 复制出一个不会再被修改的事件
+     */
+    public OrderStatusEvent copy() {
+        return new OrderStatusEvent(getOrderId(), getOldStatus(), getNewStatus(), getUserId(), getChangeTimeMillis());
+    }
+}
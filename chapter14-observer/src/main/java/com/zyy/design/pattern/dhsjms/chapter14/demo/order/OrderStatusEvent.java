@@ -4,32 +4,75 @@ import java.util.Date;
 
 /**
  * 订单状态事件
+ *
+ * 紧凑存储：变更时间为毫秒数（long），状态为序号（byte），订单号和用户ID经过 {@link IdInterner} 驻留，
+ * 大量事件堆积在缓冲区中时，每个事件只占一个对象，不再额外带一个 Date
  */
 public class OrderStatusEvent {
-    private String orderId;        // 订单ID
-    private OrderStatus oldStatus;  // 原状态
-    private OrderStatus newStatus;  // 新状态
-    private Date changeTime;       // 变更时间
-    private String userId;         // 用户ID
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final byte NO_STATUS = -1;
+
+    private String orderId;         // 订单ID
+    private String userId;          // 用户ID
+    private long changeTimeMillis;  // 变更时间
+    private byte oldStatus;         // 原状态序号
+    private byte newStatus;         // 新状态序号
 
     public OrderStatusEvent(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId) {
-        this.orderId = orderId;
-        this.oldStatus = oldStatus;
-        this.newStatus = newStatus;
-        this.changeTime = new Date();
-        this.userId = userId;
+        this(orderId, oldStatus, newStatus, userId, System.currentTimeMillis());
+    }
+
+    // 指定变更时间，用于复制事件或从磁盘恢复事件
+    public OrderStatusEvent(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId, long changeTimeMillis) {
+        reset(orderId, oldStatus, newStatus, userId, changeTimeMillis);
+    }
+
+    // 可复用事件（MutableOrderStatusEvent）使用
+    protected OrderStatusEvent() {
+        this.oldStatus = NO_STATUS;
+        this.newStatus = NO_STATUS;
+    }
+
+    // 复用事件对象，不创建新对象；构造方法也调用它，因此是 final，子类不能覆盖
+    protected final void reset(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId, long changeTimeMillis) {
+        this.orderId = IdInterner.ORDER_IDS.intern(orderId);
+        this.userId = IdInterner.USER_IDS.intern(userId);
+        this.changeTimeMillis = changeTimeMillis;
+        this.oldStatus = ordinal(oldStatus);
+        this.newStatus = ordinal(newStatus);
     }
 
     // Getter 方法
     public String getOrderId() { return orderId; }
-    public OrderStatus getOldStatus() { return oldStatus; }
-    public OrderStatus getNewStatus() { return newStatus; }
-    public Date getChangeTime() { return changeTime; }
+    public OrderStatus getOldStatus() { return status(oldStatus); }
+    public OrderStatus getNewStatus() { return status(newStatus); }
+    // 每次调用返回一个新的 Date，热路径请使用 getChangeTimeMillis
+    public Date getChangeTime() { return new Date(changeTimeMillis); }
+    public long getChangeTimeMillis() { return changeTimeMillis; }
     public String getUserId() { return userId; }
 
+    /**
+     * 只在真正需要输出时才调用，例如日志级别开启后由日志框架调用
+     */
     @Override
     public String toString() {
-        return String.format("订单[%s] 状态变更：%s → %s（用户ID：%s，变更时间：%s）",
-                orderId, oldStatus.getDesc(), newStatus.getDesc(), userId, changeTime);
+        OrderStatus oldValue = getOldStatus();
+        OrderStatus newValue = getNewStatus();
+        return new StringBuilder(96)
+                .append("订单[").append(orderId).append("] 状态变更：")
+                .append(oldValue == null ? null : oldValue.getDesc()).append(" → ")
+                .append(newValue == null ? null : newValue.getDesc())
+                .append("（用户ID：").append(userId)
+                .append("，变更时间：").append(getChangeTime()).append('）')
+                .toString();
+    }
+
+    private static byte ordinal(OrderStatus status) {
+        return status == null ? NO_STATUS : (byte) status.ordinal();
+    }
+
+    private static OrderStatus status(byte ordinal) {
+        return ordinal == NO_STATUS ? null : STATUSES[ordinal];
     }
-}
\ No newline at end of file
+}
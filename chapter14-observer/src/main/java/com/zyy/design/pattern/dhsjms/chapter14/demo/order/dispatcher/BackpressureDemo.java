@@ -0,0 +1,58 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.service.LocalOrderService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界队列背压演示：观察者每个事件耗时约 50 微秒，发布速度远超处理速度，
+ * 依次使用四种溢出策略，打印发布耗时、实际处理的事件数和分发指标
+ */
+public class BackpressureDemo {
+
+    private static final int EVENTS = 50_000;
+    private static final int CAPACITY = 1_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            run(policy);
+        }
+    }
+
+    private static void run(OverflowPolicy policy) throws InterruptedException {
+        BoundedDispatcher dispatcher = new BoundedDispatcher(2, CAPACITY, policy);
+        LocalOrderService service = new LocalOrderService(dispatcher);
+        SlowListener listener = new SlowListener();
+        service.registerListener(listener);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            service.changeOrderStatus("ORDER-" + i, OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, "USER-1");
+        }
+        long publishMillis = (System.nanoTime() - start) / 1_000_000;
+        service.shutdown();
+        dispatcher.awaitTermination(1, TimeUnit.MINUTES);
+        long totalMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("===== %s：发布耗时 %d ms，全部处理完耗时 %d ms，处理 %,d / %,d 个事件%n",
+                policy, publishMillis, totalMillis, listener.handled.get(), EVENTS);
+        System.out.print(dispatcher.getMetrics().report());
+    }
+
+    private static final class SlowListener implements OrderStatusListener {
+        private final AtomicLong handled = new AtomicLong();
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            long end = System.nanoTime() + 50_000L;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            handled.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.impl.StockListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.service.LocalOrderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量发布演示：
+ * 1. 仓库扫描后一次性把 50,000 个订单标记为已付款，库存观察者只被批量调用一次
+ * 2. 逐个发布 50,000 个事件，经过合并分发器（每批最多 1,000 个、最多等待 10ms）后，观察者被调用的次数大幅减少
+ */
+public class BatchPublishDemo {
+
+    private static final int ORDERS = 50_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        CountingListener counter = new CountingListener();
+        LocalOrderService service = new LocalOrderService(
+                new CoalescingDispatcher(new ExecutorDispatcher(), 1_000, 10, TimeUnit.MILLISECONDS));
+        service.registerListener(new StockListener());
+        service.registerListener(counter);
+
+        // 1. 批量变更
+        List<String> orderIds = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add("ORDER-" + i);
+        }
+        service.changeOrderStatus(orderIds, OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, "WAREHOUSE");
+        counter.await(ORDERS);
+        System.out.printf("批量变更：%,d 个事件，计数观察者被调用 %,d 次%n", counter.events.get(), counter.calls.get());
+
+        // 2. 逐个发布，由合并分发器攒批
+        counter.reset();
+        for (int i = 0; i < ORDERS; i++) {
+            service.changeOrderStatus(orderIds.get(i), OrderStatus.PENDING_DELIVERY, OrderStatus.DELIVERED, "WAREHOUSE");
+        }
+        counter.await(ORDERS);
+        System.out.printf("逐个发布：%,d 个事件，计数观察者被调用 %,d 次%n", counter.events.get(), counter.calls.get());
+        service.shutdown();
+    }
+
+    private static final class CountingListener implements OrderStatusListener {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong events = new AtomicLong();
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            calls.incrementAndGet();
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onOrderStatusChanges(List<OrderStatusEvent> batch) {
+            calls.incrementAndGet();
+            events.addAndGet(batch.size());
+        }
+
+        void reset() {
+            calls.set(0);
+            events.set(0);
+        }
+
+        void await(long expected) throws InterruptedException {
+            while (events.get() < expected) {
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.metrics.DispatchMetrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 有界队列分发器：固定数量的工作线程从有界队列中取事件分发，队列满时按 {@link OverflowPolicy} 处理，内存占用有上限
+ *
+ * 同时统计 {@link DispatchMetrics}：入队时的队列深度、入队到开始分发的等待时间、每个观察者的执行时间，
+ * 注册表版本变化后清理已经移除的观察者的执行时间
+ *
+ * 一批事件作为一个队列元素，每个观察者只被批量调用一次，溢出策略与单个事件相同；
+ * 溢出到磁盘时逐个事件写入溢出文件，读回后逐个分发
+ */
+public class BoundedDispatcher implements OrderEventDispatcher {
+
+    public static final int DEFAULT_THREADS = 5;
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final long POLL_MILLIS = 10L;
+
+    private final BlockingQueue<Envelope> queue;
+    private final OverflowPolicy policy;
+    private final DispatchMetrics metrics;
+    private final Thread[] workers;
+    // 只有 SPILL_TO_DISK 策略才会创建
+    private final SpillFile spill;
+    // 溢出文件中用下标代替注册表
+    private final List<ListenerRegistry> registries = new CopyOnWriteArrayList<>();
+    // 每个注册表最近一次清理观察者执行时间时的版本
+    private final Map<ListenerRegistry, Long> metricsVersions = new ConcurrentHashMap<>();
+    // 统计每个观察者耗时的调用方式，创建一次反复使用
+    private final BiConsumer<OrderStatusListener, OrderStatusEvent> timedInvoker = this::invokeTimed;
+    private final BiConsumer<OrderStatusListener, List<OrderStatusEvent>> timedBatchInvoker = this::invokeBatchTimed;
+    private volatile boolean shutdown;
+
+    public BoundedDispatcher() {
+        this(DEFAULT_THREADS, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param threads 工作线程数
+     * @param capacity 队列容量
+     * @param policy 队列满时的处理策略
+     */
+    public BoundedDispatcher(int threads, int capacity, OverflowPolicy policy) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("工作线程数必须大于 0：" + threads);
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.metrics = new DispatchMetrics(queue::size);
+        this.spill = policy == OverflowPolicy.SPILL_TO_DISK ? SpillFile.createTemp() : null;
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "order-dispatch-" + (i + 1));
+            workers[i].start();
+        }
+    }
+
+    public DispatchMetrics getMetrics() {
+        return metrics;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        if (shutdown) {
+            throw new RejectedExecutionException("分发器已关闭");
+        }
+        enqueue(new Envelope(event, null, registry, System.nanoTime()));
+    }
+
+    /**
+     * 整批事件作为一个队列元素，每个观察者只被批量调用一次
+     */
+    @Override
+    public void dispatchBatch(List<? extends OrderStatusEvent> events, ListenerRegistry registry) {
+        if (shutdown) {
+            throw new RejectedExecutionException("分发器已关闭");
+        }
+        if (!events.isEmpty()) {
+            enqueue(new Envelope(null, List.copyOf(events), registry, System.nanoTime()));
+        }
+    }
+
+    private void enqueue(Envelope envelope) {
+        metrics.recordQueueDepth(queue.size());
+        switch (policy) {
+            case BLOCK:
+                if (!queue.offer(envelope)) {
+                    metrics.recordBlocked();
+                    try {
+                        queue.put(envelope);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("等待队列空位时被中断", e);
+                    }
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(envelope)) {
+                    if (queue.poll() != null) {
+                        metrics.recordDropped();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                if (!queue.offer(envelope)) {
+                    metrics.recordCallerRuns();
+                    run(envelope);
+                }
+                break;
+            case SPILL_TO_DISK:
+                if (spill.pending() > 0 || !queue.offer(envelope)) {
+                    spill(envelope);
+                }
+                break;
+            default:
+                throw new IllegalStateException("未知的溢出策略：" + policy);
+        }
+    }
+
+    /**
+     * 不再接收新事件，队列和溢出文件中的事件会继续分发完
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * 等待工作线程分发完剩余事件并退出
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                break;
+            }
+            worker.join(remaining);
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        if (spill != null) {
+            spill.close();
+        }
+        return true;
+    }
+
+    private void work() {
+        while (true) {
+            Envelope envelope = queue.poll();
+            if (envelope == null && spill != null) {
+                // 内存队列空闲时分发溢出文件中的事件
+                SpillFile.Record record = spill.poll();
+                if (record != null) {
+                    run(new Envelope(record.event, null, registries.get(record.registryId), record.enqueueNanos));
+                    continue;
+                }
+            }
+            if (envelope == null) {
+                if (shutdown && queue.isEmpty() && (spill == null || spill.pending() == 0)) {
+                    return;
+                }
+                try {
+                    envelope = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (envelope == null) {
+                    continue;
+                }
+            }
+            run(envelope);
+        }
+    }
+
+    private void spill(Envelope envelope) {
+        int registryId = registryId(envelope.registry);
+        if (envelope.batch == null) {
+            spill.append(envelope.event, registryId, envelope.enqueueNanos);
+            metrics.recordSpilled();
+            return;
+        }
+        // 溢出文件按事件存储，整批逐个写入
+        for (OrderStatusEvent event : envelope.batch) {
+            spill.append(event, registryId, envelope.enqueueNanos);
+            metrics.recordSpilled();
+        }
+    }
+
+    private void run(Envelope envelope) {
+        ListenerRegistry registry = envelope.registry;
+        long version = registry.getVersion();
+        metrics.recordEnqueueToDispatch(System.nanoTime() - envelope.enqueueNanos);
+        if (envelope.batch == null) {
+            registry.dispatch(envelope.event, timedInvoker);
+        } else {
+            registry.dispatchBatch(envelope.batch, timedBatchInvoker);
+        }
+        // 分发期间版本变了也要清理：本次可能按旧快照记下了刚被移除的观察者，而其他线程已经按新版本清理过
+        Long pruned = metricsVersions.get(registry);
+        if (pruned == null || pruned != version || registry.getVersion() != version) {
+            pruneListenerMetrics(registry);
+        }
+    }
+
+    private void pruneListenerMetrics(ListenerRegistry registry) {
+        // 先记下版本再清理，清理之后的变化留给下一次分发
+        metricsVersions.put(registry, registry.getVersion());
+        metrics.retainListeners(listener -> {
+            for (ListenerRegistry known : metricsVersions.keySet()) {
+                if (known.contains(listener)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    private void invokeTimed(OrderStatusListener listener, OrderStatusEvent event) {
+        long start = System.nanoTime();
+        try {
+            listener.onOrderStatusChange(event);
+        } catch (Throwable e) {
+            // 一个观察者出错不影响其他观察者
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        } finally {
+            metrics.recordListener(listener, System.nanoTime() - start);
+        }
+    }
+
+    private void invokeBatchTimed(OrderStatusListener listener, List<OrderStatusEvent> events) {
+        long start = System.nanoTime();
+        try {
+            listener.onOrderStatusChanges(events);
+        } catch (Throwable e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        } finally {
+            metrics.recordListener(listener, System.nanoTime() - start);
+        }
+    }
+
+    private int registryId(ListenerRegistry registry) {
+        int id = registries.indexOf(registry);
+        if (id >= 0) {
+            return id;
+        }
+        synchronized (registries) {
+            id = registries.indexOf(registry);
+            if (id < 0) {
+                registries.add(registry);
+                id = registries.size() - 1;
+            }
+            return id;
+        }
+    }
+
+    private static final class Envelope {
+        private final OrderStatusEvent event;
+        // 批量分发时不为 null，此时 event 为 null
+        private final List<OrderStatusEvent> batch;
+        private final ListenerRegistry registry;
+        private final long enqueueNanos;
+
+        private Envelope(OrderStatusEvent event, List<OrderStatusEvent> batch, ListenerRegistry registry,
+                         long enqueueNanos) {
+            this.event = event;
+            this.batch = batch;
+            this.registry = registry;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+}
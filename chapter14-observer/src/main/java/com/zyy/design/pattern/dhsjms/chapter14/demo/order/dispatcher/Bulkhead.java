@@ -0,0 +1,185 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.metrics.Log2Histogram;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个观察者的舱壁：独立的线程、有界队列、超时和熔断器，观察者再慢也只占用自己的资源
+ *
+ * 超时从事件进入舱壁开始计算：在队列中等到超时的事件直接放弃；执行中超时的调用会被中断，
+ * 观察者不响应中断时线程仍被占用，但结果记为超时，持续超时会触发熔断
+ * 超时由检查线程立即报告给熔断器，不等观察者返回，卡住的 HALF_OPEN 试探调用也会马上重新熔断
+ */
+public class Bulkhead {
+
+    private static final int RUNNING = 0;
+    private static final int DONE = 1;
+    private static final int TIMED_OUT = 2;
+    // 检查线程已经中断了工作线程，工作线程此后才能清除中断标记
+    private static final int INTERRUPTED = 3;
+
+    private final OrderStatusListener listener;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    private final long timeoutNanos;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    // 进入舱壁到观察者返回的时间（纳秒），超时的调用也会记录
+    private final Log2Histogram latencyNanos = new Log2Histogram();
+
+    Bulkhead(OrderStatusListener listener, int concurrency, int queueCapacity, long timeout, TimeUnit unit,
+             CircuitBreaker breaker, ScheduledExecutorService watchdog) {
+        if (concurrency <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("并发数和队列容量必须大于 0：" + concurrency + "/" + queueCapacity);
+        }
+        this.listener = listener;
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.breaker = breaker;
+        this.watchdog = watchdog;
+        String name = "bulkhead-" + nameOf(listener) + "-";
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, name + threadNumber.incrementAndGet()));
+        // 长时间没有事件的观察者不占用线程
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 提交一个事件，不会阻塞调用方；熔断中或队列已满时直接放弃
+     */
+    void submit(OrderStatusEvent event) {
+        if (!breaker.tryAcquire()) {
+            shortCircuited.increment();
+            return;
+        }
+        long enqueueNanos = System.nanoTime();
+        try {
+            executor.execute(() -> run(event, enqueueNanos));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            breaker.onFailure();
+        }
+    }
+
+    private void run(OrderStatusEvent event, long enqueueNanos) {
+        long remaining = enqueueNanos + timeoutNanos - System.nanoTime();
+        if (remaining <= 0) {
+            // 在队列中就已经超时，结果已经没有意义
+            timedOut.increment();
+            breaker.onFailure();
+            latencyNanos.record(System.nanoTime() - enqueueNanos);
+            return;
+        }
+        Thread worker = Thread.currentThread();
+        AtomicInteger state = new AtomicInteger(RUNNING);
+        ScheduledFuture<?> timer = watchdog.schedule(() -> {
+            if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+                timedOut.increment();
+                breaker.onFailure();
+                worker.interrupt();
+                state.set(INTERRUPTED);
+            }
+        }, remaining, TimeUnit.NANOSECONDS);
+        Throwable error = null;
+        try {
+            listener.onOrderStatusChange(event);
+        } catch (Throwable e) {
+            error = e;
+        } finally {
+            timer.cancel(false);
+            latencyNanos.record(System.nanoTime() - enqueueNanos);
+        }
+        if (!state.compareAndSet(RUNNING, DONE)) {
+            // 超时已由检查线程报告；等它调用完 interrupt() 再清除中断标记，线程还要继续处理下一个事件
+            while (state.get() != INTERRUPTED) {
+                Thread.onSpinWait();
+            }
+            Thread.interrupted();
+        } else if (error != null) {
+            failed.increment();
+            breaker.onFailure();
+            worker.getUncaughtExceptionHandler().uncaughtException(worker, error);
+        } else {
+            succeeded.increment();
+            breaker.onSuccess();
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    public OrderStatusListener getListener() {
+        return listener;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * 队列已满被放弃的事件数
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * 熔断期间被放弃的事件数
+     */
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public Log2Histogram getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s：成功 %d，异常 %d，超时 %d，队列已满 %d，熔断丢弃 %d，熔断器 %s，耗时（纳秒）%s",
+                nameOf(listener), getSucceeded(), getFailed(), getTimedOut(), getRejected(), getShortCircuited(),
+                breaker, latencyNanos);
+    }
+
+    static String nameOf(OrderStatusListener listener) {
+        String name = listener.getClass().getSimpleName();
+        return name.isEmpty() ? listener.getClass().getName() : name;
+    }
+}
@@ -0,0 +1,109 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.metrics.Log2Histogram;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.service.LocalOrderService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢观察者隔离演示：短信接口卡住 2 秒，每 2 毫秒交替发布一个「已付款」和一个「已发货」事件，
+ * 对比 5 线程线程池和舱壁分发器下库存、财务观察者的延迟（发布到处理完的毫秒数）
+ *
+ * 线程池中 5 个线程很快被短信调用占满，库存、财务事件只能排队；
+ * 舱壁分发器中短信观察者只占满自己的 2 个线程，超时后被熔断丢弃，库存、财务不受影响
+ */
+public class BulkheadDemo {
+
+    private static final int EVENTS = 1_000;
+    private static final long INTERVAL_MILLIS = 2L;
+    private static final long HANG_MILLIS = 2_000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(ExecutorDispatcher.DEFAULT_THREADS);
+        run("5 线程线程池", new ExecutorDispatcher(pool));
+        // 短信还卡在线程池里，中断它们以便演示结束
+        pool.shutdownNow();
+
+        BulkheadDispatcher bulkheads = new BulkheadDispatcher();
+        run("舱壁分发器", bulkheads);
+        bulkheads.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.print(bulkheads.report());
+    }
+
+    private static void run(String name, OrderEventDispatcher dispatcher) throws InterruptedException {
+        LocalOrderService service = new LocalOrderService(dispatcher);
+        TimedListener stock = new TimedListener(OrderStatus.PENDING_PAYMENT, OrderStatus.PAID);
+        TimedListener finance = new TimedListener(OrderStatus.PENDING_PAYMENT, OrderStatus.PAID);
+        HangingSmsListener sms = new HangingSmsListener();
+        service.registerListener(stock);
+        service.registerListener(finance);
+        service.registerListener(sms);
+        if (dispatcher instanceof BulkheadDispatcher) {
+            // 短信：2 个线程、最多排队 50 个、500 毫秒超时；最近 10 次中一半失败就熔断 1 秒
+            ((BulkheadDispatcher) dispatcher).configure(sms, 2, 50, 500, TimeUnit.MILLISECONDS,
+                    new CircuitBreaker(10, 5, 0.5, 1, TimeUnit.SECONDS, 2));
+        }
+
+        for (int i = 0; i < EVENTS; i++) {
+            if (i % 2 == 0) {
+                service.changeOrderStatus("ORDER-" + i, OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, "USER-" + i);
+            } else {
+                service.changeOrderStatus("ORDER-" + i, OrderStatus.PENDING_DELIVERY, OrderStatus.DELIVERED, "USER-" + i);
+            }
+            Thread.sleep(INTERVAL_MILLIS);
+        }
+        // 留 1 秒处理剩余事件
+        Thread.sleep(1_000L);
+        service.shutdown();
+
+        System.out.printf("===== %s：库存处理 %d / %d 个事件，延迟 %s 毫秒；财务处理 %d 个，延迟 %s 毫秒；短信完成 %d 个%n",
+                name, stock.latencyMillis.getCount(), EVENTS / 2, stock.latencyMillis,
+                finance.latencyMillis.getCount(), finance.latencyMillis, sms.completed);
+    }
+
+    private static final class TimedListener implements OrderStatusListener {
+        private final OrderStatus oldStatus;
+        private final OrderStatus newStatus;
+        private final Log2Histogram latencyMillis = new Log2Histogram();
+
+        private TimedListener(OrderStatus oldStatus, OrderStatus newStatus) {
+            this.oldStatus = oldStatus;
+            this.newStatus = newStatus;
+        }
+
+        @Override
+        public boolean handles(OrderStatus oldStatus, OrderStatus newStatus) {
+            return oldStatus == this.oldStatus && newStatus == this.newStatus;
+        }
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            latencyMillis.record(System.currentTimeMillis() - event.getChangeTimeMillis());
+        }
+    }
+
+    private static final class HangingSmsListener implements OrderStatusListener {
+        private volatile int completed;
+
+        @Override
+        public boolean handles(OrderStatus oldStatus, OrderStatus newStatus) {
+            return oldStatus == OrderStatus.PENDING_DELIVERY && newStatus == OrderStatus.DELIVERED;
+        }
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            try {
+                // 模拟短信服务商接口卡住
+                Thread.sleep(HANG_MILLIS);
+                completed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
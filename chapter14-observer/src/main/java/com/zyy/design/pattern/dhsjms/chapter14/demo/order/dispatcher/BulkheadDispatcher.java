@@ -0,0 +1,139 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 舱壁分发器：每个观察者在自己的 {@link Bulkhead} 中执行，有独立的并发数、队列、超时和熔断器
+ *
+ * 原来一个任务依次调用所有观察者，短信接口卡住时同一事件的库存、财务观察者也要等，还占着 5 个线程中的一个；
+ * 现在慢观察者只会占满自己的舱壁，超时被中断，持续变慢时被熔断丢弃，其他观察者的延迟不受影响
+ * 发布线程只负责把事件放进各个舱壁的队列，不会被阻塞
+ */
+public class BulkheadDispatcher implements OrderEventDispatcher {
+
+    public static final int DEFAULT_CONCURRENCY = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1_000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1_000L;
+
+    private final int concurrency;
+    private final int queueCapacity;
+    private final long timeoutNanos;
+    private final Map<OrderStatusListener, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    // 所有舱壁共用一个线程检查超时
+    private final ScheduledThreadPoolExecutor watchdog;
+    private final BiConsumer<OrderStatusListener, OrderStatusEvent> submitter = this::submit;
+    private volatile boolean shutdown;
+
+    public BulkheadDispatcher() {
+        this(DEFAULT_CONCURRENCY, DEFAULT_QUEUE_CAPACITY, DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 没有单独配置的观察者使用的默认舱壁参数
+     * @param concurrency 每个观察者同时执行的事件数
+     * @param queueCapacity 每个观察者排队的事件数
+     * @param timeout 从进入舱壁到观察者返回的超时时间
+     */
+    public BulkheadDispatcher(int concurrency, int queueCapacity, long timeout, TimeUnit unit) {
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("bulkhead-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 正常返回的调用会取消超时任务，立即移出队列
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 单独配置某个观察者的舱壁，必须在它收到第一个事件之前调用
+     */
+    public Bulkhead configure(OrderStatusListener listener, int concurrency, int queueCapacity,
+                              long timeout, TimeUnit unit, CircuitBreaker breaker) {
+        Bulkhead bulkhead = new Bulkhead(listener, concurrency, queueCapacity, timeout, unit, breaker, watchdog);
+        if (bulkheads.putIfAbsent(listener, bulkhead) != null) {
+            bulkhead.shutdown();
+            throw new IllegalStateException("观察者的舱壁已经创建：" + Bulkhead.nameOf(listener));
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 某个观察者的舱壁，还没有收到过事件时返回 null
+     */
+    public Bulkhead getBulkhead(OrderStatusListener listener) {
+        return bulkheads.get(listener);
+    }
+
+    public Collection<Bulkhead> getBulkheads() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        if (shutdown) {
+            throw new RejectedExecutionException("分发器已关闭");
+        }
+        registry.dispatch(event, submitter);
+    }
+
+    private void submit(OrderStatusListener listener, OrderStatusEvent event) {
+        Bulkhead bulkhead = bulkheads.get(listener);
+        if (bulkhead == null) {
+            bulkhead = bulkheads.computeIfAbsent(listener, key -> new Bulkhead(key, concurrency, queueCapacity,
+                    timeoutNanos, TimeUnit.NANOSECONDS, new CircuitBreaker(), watchdog));
+        }
+        bulkhead.submit(event);
+    }
+
+    /**
+     * 不再接收新事件，各个舱壁中已经排队的事件会继续执行完
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+    }
+
+    /**
+     * 等待所有舱壁执行完剩余事件
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            if (!bulkhead.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        watchdog.shutdownNow();
+        return true;
+    }
+
+    /**
+     * 多行文本报告，每个观察者一行
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            report.append(bulkhead).append('\n');
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器：统计最近若干次调用的失败率（超时、异常、队列已满都算失败），超过阈值后熔断一段时间，期间直接丢弃调用
+ *
+ * 1. CLOSED：正常调用，记录每次调用的结果
+ * 2. OPEN：熔断中，所有调用直接被拒绝；到时间后进入 HALF_OPEN
+ * 3. HALF_OPEN：放行少量试探调用，全部成功则恢复 CLOSED，任意一次失败重新 OPEN
+ * 每个观察者一个熔断器，调用频率不高，直接用 synchronized
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final double DEFAULT_FAILURE_RATE = 0.5;
+    public static final long DEFAULT_OPEN_MILLIS = 5_000L;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // 最近 windowSize 次调用的结果，true 表示失败
+    private final boolean[] window;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    // HALF_OPEN 状态下还能放行和已经成功的试探调用数
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long openedCount;
+
+    public CircuitBreaker() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_FAILURE_RATE,
+                DEFAULT_OPEN_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_HALF_OPEN_CALLS);
+    }
+
+    /**
+     * @param windowSize 统计最近多少次调用
+     * @param minimumCalls 至少有多少次调用才计算失败率
+     * @param failureRateThreshold 失败率达到多少时熔断（0~1）
+     * @param openDuration 熔断多久后开始试探
+     * @param halfOpenCalls 试探调用的次数
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDuration, TimeUnit unit, int halfOpenCalls) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("统计窗口必须大于 0 且不小于最少调用次数：" + windowSize + "/" + minimumCalls);
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("失败率阈值必须在 (0, 1] 之间：" + failureRateThreshold);
+        }
+        if (halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("试探调用次数必须大于 0：" + halfOpenCalls);
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * 是否放行本次调用；放行后必须调用 {@link #onSuccess()} 或 {@link #onFailure()} 报告结果
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openUntilNanos < 0) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermits = halfOpenCalls - 1;
+                halfOpenSuccesses = 0;
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermits == 0) {
+                    return false;
+                }
+                halfOpenPermits--;
+                return true;
+            default:
+                throw new IllegalStateException("未知的熔断状态：" + state);
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses == halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+        // OPEN 状态下是熔断前就已经放行的调用，结果不再统计
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 累计熔断次数
+     */
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilNanos = System.nanoTime() + openNanos;
+        openedCount++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        failures = 0;
+        next = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return state + "（最近 " + calls + " 次调用失败 " + failures + " 次，累计熔断 " + openedCount + " 次）";
+    }
+}
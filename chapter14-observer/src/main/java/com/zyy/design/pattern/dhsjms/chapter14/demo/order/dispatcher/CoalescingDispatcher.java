@@ -0,0 +1,120 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并分发器（装饰者）：把逐个发布的事件攒成一批，再整批交给内层分发器
+ *
+ * 1. 攒够 maxBatchSize 个事件立即交出
+ * 2. 第一个事件进入窗口后最多等待 maxDelay，时间到了不管攒了多少都交出
+ * 3. 内层分发器应当支持整批分发（如 ExecutorDispatcher），观察者才能通过 onOrderStatusChanges 一次处理一批
+ * 4. 攒满交出、到时交出和整批发布都在同一把锁内交给内层分发器，各批交给内层的顺序与发布顺序一致；
+ *    内层分发器的 dispatchBatch 应当只是入队，不能长时间阻塞
+ */
+public class CoalescingDispatcher implements OrderEventDispatcher {
+
+    private final OrderEventDispatcher delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-event-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 注册表 → 正在攒的一批事件；一个订单服务只有一个注册表，锁竞争只发生在发布线程之间
+    private final Map<ListenerRegistry, List<OrderStatusEvent>> pending = new IdentityHashMap<>();
+    private boolean shutdown;
+
+    /**
+     * @param delegate 内层分发器
+     * @param maxBatchSize 每批最多的事件数
+     * @param maxDelay 每批最长的等待时间
+     */
+    public CoalescingDispatcher(OrderEventDispatcher delegate, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("批量大小必须大于 0：" + maxBatchSize);
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("等待时间不能小于 0：" + maxDelay);
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        synchronized (pending) {
+            if (shutdown) {
+                throw new RejectedExecutionException("分发器已关闭");
+            }
+            List<OrderStatusEvent> batch = pending.get(registry);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                pending.put(registry, batch);
+                // 新窗口开始，到时间后把这一批交出去
+                List<OrderStatusEvent> window = batch;
+                timer.schedule(() -> flush(registry, window), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.add(event);
+            if (batch.size() >= maxBatchSize) {
+                pending.remove(registry);
+                delegate.dispatchBatch(batch, registry);
+            }
+        }
+    }
+
+    /**
+     * 先交出正在攒的事件，再把这一批直接交给内层分发器，交给内层的顺序与发布顺序一致
+     */
+    @Override
+    public void dispatchBatch(List<? extends OrderStatusEvent> events, ListenerRegistry registry) {
+        synchronized (pending) {
+            if (shutdown) {
+                throw new RejectedExecutionException("分发器已关闭");
+            }
+            List<OrderStatusEvent> batch = pending.remove(registry);
+            if (batch != null) {
+                delegate.dispatchBatch(batch, registry);
+            }
+            delegate.dispatchBatch(events, registry);
+        }
+    }
+
+    /**
+     * 交出所有正在攒的事件，然后关闭内层分发器
+     */
+    @Override
+    public void shutdown() {
+        synchronized (pending) {
+            shutdown = true;
+            pending.forEach((registry, batch) -> delegate.dispatchBatch(batch, registry));
+            pending.clear();
+        }
+        timer.shutdownNow();
+        delegate.shutdown();
+    }
+
+    private void flush(ListenerRegistry registry, List<OrderStatusEvent> window) {
+        synchronized (pending) {
+            // 这一批已经因为攒满被交出，或者已经开始了新的窗口
+            if (pending.get(registry) != window) {
+                return;
+            }
+            pending.remove(registry);
+            // 在锁内交出，不会与下一个窗口攒满后的交出交换顺序
+            delegate.dispatchBatch(window, registry);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 同一订单事件顺序校验：每个订单依次发布 待付款→已付款→待发货→已发货→已完成 四个事件，
+ * 观察者检查收到的每个事件的原状态是否等于上一个事件的新状态
+ * 线程池分发器会出现乱序，条带分发器应当没有乱序
+ * 运行参数可以指定订单数，默认 200,000
+ */
+public class DispatchOrderingCheck {
+
+    private static final OrderStatus[] LIFECYCLE = {
+            OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, OrderStatus.PENDING_DELIVERY,
+            OrderStatus.DELIVERED, OrderStatus.COMPLETED
+    };
+    private static final int BLOCK = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        run("线程池（" + ExecutorDispatcher.DEFAULT_THREADS + " 线程）", new ExecutorDispatcher(), orders);
+        for (int stripes : new int[]{1, 4, 16, 64}) {
+            run("条带（" + stripes + " 条）", new StripedDispatcher(stripes), orders);
+        }
+    }
+
+    private static void run(String name, OrderEventDispatcher dispatcher, int orders) throws InterruptedException {
+        OrderingListener listener = new OrderingListener();
+        ListenerRegistry registry = new ListenerRegistry();
+        registry.register(listener);
+
+        long expected = (long) orders * (LIFECYCLE.length - 1);
+        long start = System.nanoTime();
+        // 每 BLOCK 个订单一组按步骤交错发布，同一订单相邻两个事件之间夹着少量其他订单的事件
+        for (int first = 0; first < orders; first += BLOCK) {
+            int last = Math.min(orders, first + BLOCK);
+            for (int step = 1; step < LIFECYCLE.length; step++) {
+                for (int order = first; order < last; order++) {
+                    dispatcher.dispatch(new OrderStatusEvent("ORDER-" + order, LIFECYCLE[step - 1], LIFECYCLE[step], "USER-" + order), registry);
+                }
+            }
+        }
+        while (listener.received.sum() < expected) {
+            Thread.sleep(1);
+        }
+        long nanos = System.nanoTime() - start;
+        dispatcher.shutdown();
+        System.out.printf("%-16s 分发 %,d 个事件，耗时 %5d ms，乱序 %,d 次%n",
+                name, expected, nanos / 1_000_000, listener.outOfOrder.sum());
+    }
+
+    private static final class OrderingListener implements OrderStatusListener {
+        private final Map<String, OrderStatus> lastStatus = new ConcurrentHashMap<>();
+        private final LongAdder received = new LongAdder();
+        private final LongAdder outOfOrder = new LongAdder();
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            OrderStatus previous = lastStatus.put(event.getOrderId(), event.getNewStatus());
+            OrderStatus expected = previous == null ? LIFECYCLE[0] : previous;
+            if (event.getOldStatus() != expected) {
+                outOfOrder.increment();
+            }
+            received.increment();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 线程池分发器：每个事件作为一个任务提交到线程池
+ * 不同事件之间没有顺序保证，同一订单的两个事件可能乱序执行
+ */
+public class ExecutorDispatcher implements OrderEventDispatcher {
+
+    public static final int DEFAULT_THREADS = 5;
+
+    private final ExecutorService executor;
+
+    public ExecutorDispatcher() {
+        this(Executors.newFixedThreadPool(DEFAULT_THREADS));
+    }
+
+    public ExecutorDispatcher(ExecutorService executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        executor.execute(() -> registry.dispatch(event));
+    }
+
+    /**
+     * 整批事件作为一个任务提交，每个观察者只被批量调用一次
+     */
+    @Override
+    public void dispatchBatch(List<? extends OrderStatusEvent> events, ListenerRegistry registry) {
+        if (!events.isEmpty()) {
+            List<OrderStatusEvent> batch = List.copyOf(events);
+            executor.execute(() -> registry.dispatchBatch(batch));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
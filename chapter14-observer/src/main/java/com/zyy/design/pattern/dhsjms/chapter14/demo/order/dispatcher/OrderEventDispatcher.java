@@ -0,0 +1,43 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.util.List;
+
+/**
+ * 事件分发器：决定订单状态事件在哪个线程、以什么顺序交给观察者
+ */
+public interface OrderEventDispatcher {
+
+    /**
+     * 异步分发事件，不阻塞订单主流程
+     * @param event 订单状态事件
+     * @param registry 观察者注册表，在分发线程中读取当时的快照
+     */
+    void dispatch(OrderStatusEvent event, ListenerRegistry registry);
+
+    /**
+     * 按字段发布事件，由分发器决定如何创建事件对象；默认每次创建一个新事件
+     * 预先分配事件的分发器（如 RingBufferEventBus）可以覆盖此方法，发布时不创建任何对象
+     */
+    default void publish(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId, ListenerRegistry registry) {
+        dispatch(new OrderStatusEvent(orderId, oldStatus, newStatus, userId), registry);
+    }
+
+    /**
+     * 异步分发一批事件；默认逐个分发，能整批交给观察者的分发器（如 ExecutorDispatcher）可以覆盖此方法
+     */
+    default void dispatchBatch(List<? extends OrderStatusEvent> events, ListenerRegistry registry) {
+        for (OrderStatusEvent event : events) {
+            dispatch(event, registry);
+        }
+    }
+
+    /**
+     * 不再接收新事件，已经提交的事件会继续分发完
+     */
+    void shutdown();
+
+}
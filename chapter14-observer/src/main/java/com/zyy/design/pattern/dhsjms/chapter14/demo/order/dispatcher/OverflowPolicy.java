@@ -0,0 +1,27 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+/**
+ * 有界分发队列满时的处理策略
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 阻塞发布者，直到队列有空位
+     */
+    BLOCK,
+
+    /**
+     * 丢弃队列中最早的事件，为新事件腾出位置
+     */
+    DROP_OLDEST,
+
+    /**
+     * 由发布者线程直接分发该事件，自然地减慢发布速度
+     */
+    CALLER_RUNS,
+
+    /**
+     * 把事件写入磁盘上的溢出文件，队列空闲后再读回来分发；溢出文件中还有事件时，新事件也先写入文件，尽量保持先后顺序
+     */
+    SPILL_TO_DISK
+}
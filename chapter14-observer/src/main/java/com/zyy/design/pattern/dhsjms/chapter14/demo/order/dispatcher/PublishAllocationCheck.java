@@ -0,0 +1,66 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.service.LocalOrderService;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 发布路径内存分配检查：在默认日志级别（不输出 DEBUG）下，用不同的分发器连续变更订单状态，统计发布线程平均每个事件分配的字节数
+ * 环形缓冲区事件总线在稳定状态下应当为 0
+ * 运行参数可以指定事件数，默认 2,000,000
+ */
+public class PublishAllocationCheck {
+
+    private static final int ORDERS = 1024;
+
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        run("线程池", ExecutorDispatcher::new, events);
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            run("环形缓冲区 " + waitStrategy, () -> new RingBufferEventBus(1 << 14, waitStrategy), events);
+        }
+    }
+
+    private static void run(String name, Supplier<OrderEventDispatcher> factory, int events) {
+        AtomicLong handled = new AtomicLong();
+        LocalOrderService service = new LocalOrderService(factory.get());
+        service.registerListener(new OrderStatusListener() {
+            @Override
+            public void onOrderStatusChange(OrderStatusEvent event) {
+                handled.incrementAndGet();
+            }
+        });
+        String[] orderIds = new String[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds[i] = "ORDER-" + i;
+        }
+
+        // 预热
+        publish(service, orderIds, events, handled);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        publish(service, orderIds, events, handled);
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        service.shutdown();
+
+        System.out.printf("%-20s %,d 个事件，耗时 %5d ms，发布线程每个事件分配 %.2f 字节%n",
+                name, events, nanos / 1_000_000, (double) allocated / events);
+    }
+
+    private static void publish(LocalOrderService service, String[] orderIds, int events, AtomicLong handled) {
+        long target = handled.get() + events;
+        for (int i = 0; i < events; i++) {
+            service.changeOrderStatus(orderIds[i & (ORDERS - 1)], OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, "USER-1");
+        }
+        while (handled.get() < target) {
+            Thread.yield();
+        }
+    }
+}
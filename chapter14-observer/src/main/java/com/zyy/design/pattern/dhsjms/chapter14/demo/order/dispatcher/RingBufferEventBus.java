@@ -0,0 +1,154 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.MutableOrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 环形缓冲区事件总线：预先分配好所有事件对象，发布时不创建任何对象
+ *
+ * 1. 多个发布者通过 AtomicLong 争抢序号，序号对容量取模就是槽位，填好事件后在 available 数组中标记该序号可读
+ * 2. 只有一个消费者线程，按序号依次读取并交给观察者，同一总线上的事件严格按序号顺序分发
+ * 3. 缓冲区满时发布者按等待策略等待消费者腾出槽位，不会覆盖未处理的事件
+ * 4. 事件对象会被复用，观察者如果要在回调之外保留事件，需要先调用 {@link MutableOrderStatusEvent#copy()}
+ */
+public class RingBufferEventBus implements OrderEventDispatcher {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final MutableOrderStatusEvent[] events;
+    private final ListenerRegistry[] registries;
+    // 每个槽位最近一次可读的序号，消费者据此判断槽位是否已经填好
+    private final AtomicLongArray available;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    // 下一个要分配给发布者的序号
+    private final AtomicLong claimed = new AtomicLong();
+    // 消费者已经处理完的最大序号
+    private final AtomicLong consumed = new AtomicLong(-1L);
+    private final Thread consumer;
+    private volatile boolean shutdown;
+
+    public RingBufferEventBus() {
+        this(DEFAULT_CAPACITY, WaitStrategy.PARK);
+    }
+
+    /**
+     * @param capacity 槽位数，必须是 2 的幂
+     * @param waitStrategy 消费者等待新事件、发布者等待空槽位时的策略
+     */
+    public RingBufferEventBus(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("容量必须是 2 的幂：" + capacity);
+        }
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+        this.events = new MutableOrderStatusEvent[capacity];
+        this.registries = new ListenerRegistry[capacity];
+        this.available = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new MutableOrderStatusEvent();
+            available.set(i, -1L);
+        }
+        this.mask = capacity - 1;
+        this.consumer = new Thread(this::consume, "order-event-bus");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * 把已有事件的字段复制到缓冲区中，不保留传入的事件对象
+     */
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        long sequence = claim();
+        events[(int) sequence & mask].set(event.getOrderId(), event.getOldStatus(), event.getNewStatus(),
+                event.getUserId(), event.getChangeTimeMillis());
+        commit(sequence, registry);
+    }
+
+    /**
+     * 直接在预先分配的事件对象上填充字段，不创建任何对象
+     */
+    @Override
+    public void publish(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId, ListenerRegistry registry) {
+        long sequence = claim();
+        events[(int) sequence & mask].set(orderId, oldStatus, newStatus, userId, System.currentTimeMillis());
+        commit(sequence, registry);
+    }
+
+    /**
+     * 不再接收新事件，消费者处理完已经发布的事件后退出
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * 等待消费者处理完已经发布的事件并退出
+     */
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        consumer.join(millis);
+        return !consumer.isAlive();
+    }
+
+    private long claim() {
+        long sequence = claimed.getAndIncrement();
+        // 槽位上一轮的事件还没有被处理完时等待
+        long wrapPoint = sequence - events.length;
+        int counter = 0;
+        while (wrapPoint > consumed.get()) {
+            if (!consumer.isAlive()) {
+                throw new RejectedExecutionException("事件总线已关闭");
+            }
+            counter = waitStrategy.idle(counter);
+        }
+        if (shutdown) {
+            // 序号已经分配出去，消费者可能在等它，填一个空槽位让消费者跳过
+            commit(sequence, null);
+            throw new RejectedExecutionException("事件总线已关闭");
+        }
+        return sequence;
+    }
+
+    private void commit(long sequence, ListenerRegistry registry) {
+        registries[(int) sequence & mask] = registry;
+        // 之前对槽位的写入在消费者读到序号后一定可见
+        available.lazySet((int) sequence & mask, sequence);
+    }
+
+    private void consume() {
+        long next = 0L;
+        int counter = 0;
+        while (true) {
+            int index = (int) next & mask;
+            if (available.get(index) != next) {
+                // 关闭后已经分配出去的序号都处理完才退出
+                if (shutdown && next >= claimed.get()) {
+                    return;
+                }
+                counter = waitStrategy.idle(counter);
+                continue;
+            }
+            counter = 0;
+            ListenerRegistry registry = registries[index];
+            registries[index] = null;
+            if (registry != null) {
+                try {
+                    registry.dispatch(events[index]);
+                } catch (Throwable e) {
+                    // 一个观察者出错不能让总线停下来
+                    consumer.getUncaughtExceptionHandler().uncaughtException(consumer, e);
+                }
+            }
+            consumed.lazySet(next);
+            next++;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 有界分发器的溢出文件：先进先出，全部读完后把文件截断为空
+ * 每条记录为 长度 + 订单号、原状态、新状态、用户ID、变更时间、注册表编号、入队时间
+ */
+final class SpillFile implements AutoCloseable {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Path path;
+    private final RandomAccessFile file;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private long readPosition;
+    private long writePosition;
+    private long pending;
+
+    SpillFile(Path path) {
+        this.path = path;
+        try {
+            this.file = new RandomAccessFile(path.toFile(), "rw");
+            this.file.setLength(0L);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建溢出文件失败：" + path, e);
+        }
+    }
+
+    static SpillFile createTemp() {
+        try {
+            Path path = Files.createTempFile("order-events-", ".spill");
+            path.toFile().deleteOnExit();
+            return new SpillFile(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建溢出文件失败", e);
+        }
+    }
+
+    synchronized long pending() {
+        return pending;
+    }
+
+    synchronized void append(OrderStatusEvent event, int registryId, long enqueueNanos) {
+        try {
+            buffer.reset();
+            out.writeInt(0);
+            writeNullable(event.getOrderId());
+            out.writeByte(ordinal(event.getOldStatus()));
+            out.writeByte(ordinal(event.getNewStatus()));
+            writeNullable(event.getUserId());
+            out.writeLong(event.getChangeTimeMillis());
+            out.writeInt(registryId);
+            out.writeLong(enqueueNanos);
+            byte[] record = buffer.toByteArray();
+            int length = record.length - Integer.BYTES;
+            record[0] = (byte) (length >>> 24);
+            record[1] = (byte) (length >>> 16);
+            record[2] = (byte) (length >>> 8);
+            record[3] = (byte) length;
+            file.seek(writePosition);
+            file.write(record);
+            writePosition += record.length;
+            pending++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入溢出文件失败：" + path, e);
+        }
+    }
+
+    /**
+     * 读出最早的一条记录，没有记录时返回 null
+     */
+    synchronized Record poll() {
+        if (pending == 0) {
+            return null;
+        }
+        try {
+            file.seek(readPosition);
+            int length = file.readInt();
+            byte[] bytes = new byte[length];
+            file.readFully(bytes);
+            readPosition += Integer.BYTES + length;
+            if (--pending == 0) {
+                // 全部读完，从头开始复用文件
+                readPosition = 0L;
+                writePosition = 0L;
+                file.setLength(0L);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            String orderId = readNullable(in);
+            OrderStatus oldStatus = status(in.readByte());
+            OrderStatus newStatus = status(in.readByte());
+            String userId = readNullable(in);
+            long changeTime = in.readLong();
+            int registryId = in.readInt();
+            long enqueueNanos = in.readLong();
+            return new Record(new OrderStatusEvent(orderId, oldStatus, newStatus, userId, changeTime), registryId, enqueueNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取溢出文件失败：" + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            file.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("关闭溢出文件失败：" + path, e);
+        }
+    }
+
+    private void writeNullable(String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int ordinal(OrderStatus status) {
+        return status == null ? -1 : status.ordinal();
+    }
+
+    private static OrderStatus status(byte ordinal) {
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    static final class Record {
+        final OrderStatusEvent event;
+        final int registryId;
+        final long enqueueNanos;
+
+        private Record(OrderStatusEvent event, int registryId, long enqueueNanos) {
+            this.event = event;
+            this.registryId = registryId;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按订单号分条带的分发器
+ *
+ * 1. 订单号按哈希落到固定的条带，每个条带是一条只有一个消费者的通道，同一订单的事件严格按发布顺序分发
+ * 2. 条带之间互不影响，不同订单的事件在线程池上并行分发，某个慢观察者只会拖慢它所在的条带
+ * 3. 条带只是一个无锁队列，有事件时才占用一个工作线程，条带数可以远大于线程数
+ * 4. 一个条带连续分发 {@value #BATCH} 个事件后把自己重新提交到线程池末尾，让出工作线程，
+ *    热点订单不会长期霸占线程、饿死其他条带
+ */
+public class StripedDispatcher implements OrderEventDispatcher {
+
+    // 条带每次占用工作线程最多分发的事件数
+    private static final int BATCH = 64;
+
+    private final Lane[] lanes;
+    private final ExecutorService workers;
+    private volatile boolean shutdown;
+
+    /**
+     * @param stripes 条带数，工作线程数为条带数与 CPU 核数中的较小值
+     */
+    public StripedDispatcher(int stripes) {
+        this(stripes, Executors.newFixedThreadPool(Math.min(checkStripes(stripes),
+                Runtime.getRuntime().availableProcessors()), workerFactory()));
+    }
+
+    public StripedDispatcher(int stripes, ExecutorService workers) {
+        this.lanes = new Lane[checkStripes(stripes)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+        }
+        this.workers = workers;
+    }
+
+    public int getStripes() {
+        return lanes.length;
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        if (shutdown) {
+            throw new RejectedExecutionException("分发器已关闭");
+        }
+        lanes[stripeOf(event.getOrderId())].offer(event, registry);
+    }
+
+    /**
+     * 不再接收新事件，各条带中已有的事件会继续分发完
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        workers.shutdown();
+    }
+
+    private int stripeOf(String orderId) {
+        int hash = orderId == null ? 0 : orderId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private static int checkStripes(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("条带数必须大于 0：" + stripes);
+        }
+        return stripes;
+    }
+
+    private static ThreadFactory workerFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "order-stripe-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 单消费者通道：同一时刻最多一个工作线程在分发这条通道的事件
+     */
+    private final class Lane implements Runnable {
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+        // 是否已经有工作线程在分发，避免每个事件都提交一个任务
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        void offer(OrderStatusEvent event, ListenerRegistry registry) {
+            Task task = new Task(event, registry);
+            tasks.offer(task);
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 发布线程越过 shutdown 检查后线程池才关闭：放下标记、撤回事件，让调用方知道发布失败，
+                    // 否则标记一直为 true，这条通道之后的事件都不会再被分发
+                    draining.set(false);
+                    tasks.remove(task);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int budget = BATCH;
+            do {
+                Task task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.registry.dispatch(task.event);
+                    } catch (Throwable e) {
+                        // 一个观察者出错不能让整条通道停下来
+                        Thread current = Thread.currentThread();
+                        current.getUncaughtExceptionHandler().uncaughtException(current, e);
+                    }
+                    if (--budget == 0) {
+                        if (resubmit()) {
+                            return;
+                        }
+                        budget = BATCH;
+                    }
+                }
+                draining.set(false);
+                // 放下标记后再检查一次，防止漏掉刚刚提交的事件
+            } while (!tasks.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * 还有事件时把通道排到线程池末尾，标记保持为 true，同一时刻仍只有一个工作线程分发这条通道
+         * @return 线程池已关闭、不再接收任务时返回 false，由当前线程继续分发
+         */
+        private boolean resubmit() {
+            if (tasks.isEmpty() || shutdown) {
+                return false;
+            }
+            try {
+                workers.execute(this);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class Task {
+        private final OrderStatusEvent event;
+        private final ListenerRegistry registry;
+
+        private Task(OrderStatusEvent event, ListenerRegistry registry) {
+            this.event = event;
+            this.registry = registry;
+        }
+    }
+}
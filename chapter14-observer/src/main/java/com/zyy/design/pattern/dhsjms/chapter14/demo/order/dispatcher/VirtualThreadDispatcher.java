@@ -0,0 +1,109 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 虚拟线程分发器：每次观察者调用都在一个新的虚拟线程中执行，适合短信、物流接口这类大部分时间阻塞在 I/O 上的观察者
+ *
+ * 1. 虚拟线程阻塞时会让出载体线程，成千上万个调用同时等待 I/O 也只占用少量平台线程
+ * 2. 每个观察者有自己的信号量，限制同时调用它的虚拟线程数，避免把下游接口压垮；超出限制的调用在虚拟线程中排队等待
+ * 3. 同一事件的多个观察者并行执行，事件之间、观察者之间都没有顺序保证
+ * 4. 观察者从注册表移除后回收它的信号量：还有调用在执行时由最后一个结束的调用回收，
+ *    否则由注册表变化后的第一次分发扫描一遍回收；发布路径不加锁，一个分发器只服务一个注册表
+ */
+public class VirtualThreadDispatcher implements OrderEventDispatcher {
+
+    public static final int DEFAULT_PERMITS_PER_LISTENER = 64;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("order-listener-", 0).factory());
+    private final int permitsPerListener;
+    // 观察者 → 并发限制，第一次分发给该观察者时创建
+    private final Map<OrderStatusListener, Semaphore> limits = new ConcurrentHashMap<>();
+    // 已经按这个版本的注册表扫描过信号量
+    private volatile long prunedVersion;
+
+    public VirtualThreadDispatcher() {
+        this(DEFAULT_PERMITS_PER_LISTENER);
+    }
+
+    /**
+     * @param permitsPerListener 每个观察者最多同时被调用的次数
+     */
+    public VirtualThreadDispatcher(int permitsPerListener) {
+        if (permitsPerListener <= 0) {
+            throw new IllegalArgumentException("并发限制必须大于 0：" + permitsPerListener);
+        }
+        this.permitsPerListener = permitsPerListener;
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        long version = registry.getVersion();
+        if (version != prunedVersion) {
+            // 每个版本只扫描一次，并发扫描也无妨
+            prunedVersion = version;
+            prune(registry);
+        }
+        for (OrderStatusListener listener : registry.getListeners(event.getOldStatus(), event.getNewStatus())) {
+            Semaphore limit = limits.computeIfAbsent(listener, key -> new Semaphore(permitsPerListener));
+            if (!registry.contains(listener)) {
+                // 读取路由表之后观察者被移除，扫描可能已经结束：本次事件照常送达，信号量不再留在表中
+                limits.remove(listener, limit);
+            }
+            executor.execute(() -> invoke(listener, limit, event, registry));
+        }
+    }
+
+    /**
+     * 不再接收新事件，已经开始的调用会继续执行完
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 回收已经移除、没有调用在执行的观察者的信号量；还有调用在执行的由最后一个结束的调用回收
+     */
+    private void prune(ListenerRegistry registry) {
+        for (Map.Entry<OrderStatusListener, Semaphore> entry : limits.entrySet()) {
+            if (!registry.contains(entry.getKey()) && entry.getValue().availablePermits() == permitsPerListener) {
+                limits.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 当前持有信号量的观察者数
+     */
+    public int getLimitedListenerCount() {
+        return limits.size();
+    }
+
+    private void invoke(OrderStatusListener listener, Semaphore limit, OrderStatusEvent event, ListenerRegistry registry) {
+        try {
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            listener.onOrderStatusChange(event);
+        } finally {
+            limit.release();
+            // 先放回许可再检查，与分发时的扫描不会同时错过
+            if (!registry.contains(listener) && limit.availablePermits() == permitsPerListener) {
+                limits.remove(listener, limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 环形缓冲区的等待策略：消费者等待新事件、发布者等待空槽位时如何消磨时间
+ */
+public enum WaitStrategy {
+
+    /**
+     * 一直自旋，延迟最低，但始终占满一个 CPU 核，只适合核数充足、对延迟极其敏感的场景
+     */
+    BUSY_SPIN {
+        @Override
+        int idle(int counter) {
+            Thread.onSpinWait();
+            return counter + 1;
+        }
+    },
+
+    /**
+     * 先自旋一会儿再让出 CPU，延迟低，空闲时仍有一定 CPU 占用
+     */
+    YIELD {
+        @Override
+        int idle(int counter) {
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return counter + 1;
+        }
+    },
+
+    /**
+     * 先自旋、再让出 CPU，最后短暂休眠，空闲时几乎不占 CPU，代价是事件到来时最多多等一个休眠周期
+     */
+    PARK {
+        @Override
+        int idle(int counter) {
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (counter < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return counter + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    /**
+     * 等待一次
+     * @param counter 本轮已经等待的次数，条件满足后从 0 重新开始
+     * @return 新的等待次数
+     */
+    abstract int idle(int counter);
+}
@@ -0,0 +1,109 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.journal;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.service.LocalOrderService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 事件日志演示：
+ * 1. 多个线程同时追加并等待刷盘，组提交让刷盘次数远少于追加次数
+ * 2. 重新打开日志，恢复出原来的写入位置
+ * 3. 从头、从中间某个偏移量把事件重放给订单服务中注册的观察者
+ * 运行参数可以指定事件总数，默认 1,000,000
+ */
+public class JournalDemo {
+
+    private static final int THREADS = 4;
+    private static final int SEGMENT_SIZE = 8 << 20;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int perThread = events / THREADS;
+        Path directory = Files.createTempDirectory("order-journal-");
+
+        // 1. 并发追加 + 组提交
+        AtomicLong middleOffset = new AtomicLong(-1L);
+        long writeOffset;
+        try (OrderEventJournal journal = new OrderEventJournal(directory, SEGMENT_SIZE, 10, TimeUnit.MILLISECONDS)) {
+            List<Thread> writers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Thread writer = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            OrderStatusEvent event = new OrderStatusEvent("ORDER-" + thread + "-" + i,
+                                    OrderStatus.PENDING_DELIVERY, OrderStatus.DELIVERED, "USER-" + i);
+                            long offset = journal.append(event);
+                            if (thread == 0 && i == perThread / 2) {
+                                middleOffset.set(offset);
+                            }
+                            // 每 64 个事件等待一次刷盘，模拟部分调用方需要持久化保证
+                            if ((i & 63) == 0) {
+                                journal.awaitDurable(offset);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "writer-" + t);
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            journal.awaitDurable(journal.getWriteOffset() - 1);
+            long nanos = System.nanoTime() - start;
+            writeOffset = journal.getWriteOffset();
+            System.out.printf("追加 %,d 个事件（%.1f MB），耗时 %d ms，%.0f 万事件/秒，刷盘 %,d 次%n",
+                    (long) perThread * THREADS, writeOffset / 1048576D, nanos / 1_000_000,
+                    (double) perThread * THREADS / nanos * 1e5, journal.getForceCount());
+        }
+
+        // 2. 重新打开日志，恢复写入位置
+        try (OrderEventJournal journal = new OrderEventJournal(directory, SEGMENT_SIZE, 10, TimeUnit.MILLISECONDS)) {
+            if (journal.getWriteOffset() != writeOffset) {
+                throw new IllegalStateException("恢复的写入位置不一致：" + journal.getWriteOffset() + " != " + writeOffset);
+            }
+            System.out.printf("重新打开日志，写入位置 %,d，与关闭前一致%n", journal.getWriteOffset());
+
+            // 3. 重放给订单服务中注册的观察者
+            LocalOrderService service = new LocalOrderService();
+            AtomicLong replayed = new AtomicLong();
+            service.registerListener(new OrderStatusListener() {
+                @Override
+                public void onOrderStatusChange(OrderStatusEvent event) {
+                    replayed.incrementAndGet();
+                }
+            });
+            long start = System.nanoTime();
+            long next = service.replay(journal, 0L);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("从头重放 %,d 个事件，耗时 %d ms，%.0f MB/秒，下一个偏移量 %,d%n",
+                    replayed.get(), nanos / 1_000_000, writeOffset / 1048576D / (nanos / 1e9), next);
+
+            replayed.set(0);
+            service.replay(journal, middleOffset.get());
+            System.out.printf("从偏移量 %,d 重放 %,d 个事件%n", middleOffset.get(), replayed.get());
+            service.shutdown();
+        }
+
+        // 清理演示用的日志目录
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,72 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.journal;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.OrderEventDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 先写日志再分发（装饰者）：事件先追加到 {@link OrderEventJournal}，再交给内层分发器
+ * 进程崩溃时还在内层分发器队列中的事件可以从日志重放
+ */
+public class JournalingDispatcher implements OrderEventDispatcher {
+
+    private final OrderEventDispatcher delegate;
+    private final OrderEventJournal journal;
+    private final boolean durable;
+
+    /**
+     * @param durable 是否等事件刷到磁盘（组提交）后再分发；false 时只保证写入映射内存，进程崩溃不丢，机器掉电可能丢失最后一个刷盘周期的事件
+     */
+    public JournalingDispatcher(OrderEventDispatcher delegate, OrderEventJournal journal, boolean durable) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.journal = Objects.requireNonNull(journal, "journal");
+        this.durable = durable;
+    }
+
+    @Override
+    public void dispatch(OrderStatusEvent event, ListenerRegistry registry) {
+        long offset = journal.append(event);
+        awaitDurable(offset);
+        delegate.dispatch(event, registry);
+    }
+
+    /**
+     * 整批追加后只等待一次刷盘
+     */
+    @Override
+    public void dispatchBatch(List<? extends OrderStatusEvent> events, ListenerRegistry registry) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long offset = 0L;
+        for (OrderStatusEvent event : events) {
+            offset = journal.append(event);
+        }
+        awaitDurable(offset);
+        delegate.dispatchBatch(events, registry);
+    }
+
+    /**
+     * 只关闭内层分发器，日志由创建者关闭
+     */
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private void awaitDurable(long offset) {
+        if (!durable) {
+            return;
+        }
+        try {
+            journal.awaitDurable(offset);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待事件刷盘时被中断", e);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.journal;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.MutableOrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 订单事件日志：把事件以紧凑的二进制格式追加到内存映射的分段文件中，进程崩溃后可以从任意位置重放
+ *
+ * 1. 每个分段文件大小固定，文件名为该分段第一个字节的全局偏移量，写满后切换到新的分段
+ * 2. 记录格式：长度(int) + CRC32C(int) + 变更时间(long) + 原状态(byte) + 新状态(byte) + 订单号 + 用户ID，
+ *    字符串为 长度(short，-1 表示 null) + UTF-8 字节；长度最后写入，写了一半的记录读出来长度为 0，视为日志末尾
+ * 3. 组提交：追加只写入映射内存，后台刷盘线程把这段时间内所有追加一次 force 到磁盘；
+ *    需要持久化保证的调用方用 {@link #awaitDurable} 等待，多个调用方共享同一次刷盘
+ * 4. 偏移量是记录在整个日志中的字节位置，{@link #replay} 从指定偏移量开始按顺序读出事件
+ */
+public final class OrderEventJournal implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10L;
+
+    private static final String SUFFIX = ".journal";
+    private static final int HEADER = Integer.BYTES * 2;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+
+    // 以下字段由 appendLock 保护
+    private final Object appendLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private Segment current;
+    // 已经写满、还没有刷盘的分段
+    private final List<Segment> sealed = new ArrayList<>();
+    private long writeOffset;
+
+    private final Object durableLock = new Object();
+    private volatile long durableOffset;
+    private volatile long forceCount;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public OrderEventJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 打开（或创建）日志目录，找到最后一个分段中最后一条完整记录之后的位置继续追加
+     * @param segmentSize 每个分段的字节数
+     * @param flushInterval 没有调用方等待时，后台刷盘的最长间隔
+     */
+    public OrderEventJournal(Path directory, int segmentSize, long flushInterval, TimeUnit unit) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("分段太小：" + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+        try {
+            Files.createDirectories(directory);
+            TreeMap<Long, Path> segments = listSegments();
+            long base = segments.isEmpty() ? 0L : segments.lastKey();
+            current = Segment.open(segmentPath(base), base, segmentSize, FileChannel.MapMode.READ_WRITE);
+            current.position = scanEnd(current.buffer, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开事件日志失败：" + directory, e);
+        }
+        writeOffset = current.base + current.position;
+        durableOffset = writeOffset;
+        flusher = new Thread(this::flushLoop, "order-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 追加一个事件，写入映射内存后立即返回，不等待刷盘
+     * @return 该事件的偏移量
+     */
+    public long append(OrderStatusEvent event) {
+        byte[] orderId = utf8(event.getOrderId());
+        byte[] userId = utf8(event.getUserId());
+        int length = Long.BYTES + 2 + Short.BYTES + length(orderId) + Short.BYTES + length(userId);
+        if (HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("事件太大，超过分段大小：" + event);
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("事件日志已关闭");
+            }
+            if (current.position + HEADER + length > segmentSize) {
+                roll();
+            }
+            MappedByteBuffer buffer = current.buffer;
+            int start = current.position;
+            int p = start + HEADER;
+            buffer.putLong(p, event.getChangeTimeMillis());
+            p += Long.BYTES;
+            buffer.put(p++, ordinal(event.getOldStatus()));
+            buffer.put(p++, ordinal(event.getNewStatus()));
+            p = putString(buffer, p, orderId);
+            putString(buffer, p, userId);
+            crc.reset();
+            crc.update(buffer.slice(start + HEADER, length));
+            buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+            // 长度最后写入，之前崩溃的话这条记录读出来长度为 0
+            buffer.putInt(start, length);
+            current.position = start + HEADER + length;
+            writeOffset = current.base + current.position;
+            return current.base + start;
+        }
+    }
+
+    /**
+     * 等待偏移量为 offset 的记录刷到磁盘，同一时间等待的调用方共享一次刷盘
+     */
+    public void awaitDurable(long offset) throws InterruptedException {
+        if (durableOffset > offset) {
+            return;
+        }
+        synchronized (durableLock) {
+            while (durableOffset <= offset) {
+                if (!flusher.isAlive()) {
+                    throw new IllegalStateException("事件日志已关闭");
+                }
+                LockSupport.unpark(flusher);
+                durableLock.wait(1L);
+            }
+        }
+    }
+
+    /**
+     * 下一条记录的偏移量
+     */
+    public long getWriteOffset() {
+        synchronized (appendLock) {
+            return writeOffset;
+        }
+    }
+
+    /**
+     * 已经刷到磁盘的位置，之前的记录在进程或机器崩溃后都不会丢失
+     */
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    /**
+     * 刷盘次数，与追加次数对比可以看出组提交合并了多少次刷盘
+     */
+    public long getForceCount() {
+        return forceCount;
+    }
+
+    /**
+     * 从 fromOffset 开始按顺序把事件交给注册表中的观察者，在调用方线程中同步执行
+     * @return 下一条记录的偏移量，可以作为下次重放的起点
+     */
+    public long replay(long fromOffset, ListenerRegistry registry) {
+        return replay(fromOffset, registry::dispatch);
+    }
+
+    /**
+     * 从 fromOffset 开始按顺序读出事件
+     * 为了以磁盘速度读取，事件对象会被复用，需要保留事件时请调用 {@link MutableOrderStatusEvent#copy()}
+     * @param fromOffset 某条记录的偏移量，例如 {@link #append} 的返回值或上次重放的返回值
+     * @return 下一条记录的偏移量
+     */
+    public long replay(long fromOffset, Consumer<? super MutableOrderStatusEvent> consumer) {
+        long end = getWriteOffset();
+        if (fromOffset < 0 || fromOffset > end) {
+            throw new IllegalArgumentException("偏移量超出范围：" + fromOffset);
+        }
+        MutableOrderStatusEvent event = new MutableOrderStatusEvent();
+        long offset = fromOffset;
+        try {
+            for (long base : listSegments().keySet()) {
+                if (offset >= end) {
+                    break;
+                }
+                if (base + segmentSize <= offset) {
+                    continue;
+                }
+                try (Segment segment = Segment.open(segmentPath(base), base, segmentSize, FileChannel.MapMode.READ_ONLY)) {
+                    int limit = (int) Math.min(segment.buffer.capacity(), end - base);
+                    offset = replaySegment(segment, (int) (offset - base), limit, event, consumer);
+                }
+                // 分段末尾剩余的空间不足以写下一条记录，下一条记录在下一个分段的开头
+                offset = Math.max(offset, base + segmentSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取事件日志失败：" + directory, e);
+        }
+        return Math.min(offset, end);
+    }
+
+    /**
+     * 停止追加，把剩余记录刷到磁盘后关闭所有分段
+     * 等待刷盘线程时不响应中断，被中断时等它退出后恢复中断标志
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        LockSupport.unpark(flusher);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                flusher.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (appendLock) {
+            current.close();
+        }
+    }
+
+    private long replaySegment(Segment segment, int position, int limit,
+                               MutableOrderStatusEvent event, Consumer<? super MutableOrderStatusEvent> consumer) {
+        MappedByteBuffer buffer = segment.buffer;
+        CRC32C check = new CRC32C();
+        int p = position;
+        while (p + HEADER <= limit) {
+            int length = buffer.getInt(p);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || p + HEADER + length > limit) {
+                throw new IllegalStateException("偏移量 " + (segment.base + p) + " 处不是完整的记录");
+            }
+            check.reset();
+            check.update(buffer.slice(p + HEADER, length));
+            if ((int) check.getValue() != buffer.getInt(p + Integer.BYTES)) {
+                throw new IllegalStateException("偏移量 " + (segment.base + p) + " 处的记录校验失败");
+            }
+            int q = p + HEADER;
+            long changeTime = buffer.getLong(q);
+            q += Long.BYTES;
+            OrderStatus oldStatus = status(buffer.get(q++));
+            OrderStatus newStatus = status(buffer.get(q++));
+            String orderId = getString(buffer, q);
+            q += Short.BYTES + Math.max(0, buffer.getShort(q));
+            String userId = getString(buffer, q);
+            event.set(orderId, oldStatus, newStatus, userId, changeTime);
+            consumer.accept(event);
+            p += HEADER + length;
+        }
+        return segment.base + p;
+    }
+
+    private void roll() {
+        // 分段剩余空间保持为 0，读到长度 0 即跳到下一个分段
+        sealed.add(current);
+        long base = current.base + segmentSize;
+        try {
+            current = Segment.open(segmentPath(base), base, segmentSize, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建日志分段失败：" + base, e);
+        }
+        writeOffset = base;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            Segment active;
+            List<Segment> full;
+            boolean stop;
+            synchronized (appendLock) {
+                target = writeOffset;
+                active = current;
+                full = new ArrayList<>(sealed);
+                sealed.clear();
+                stop = closed;
+            }
+            if (target > durableOffset || !full.isEmpty()) {
+                for (Segment segment : full) {
+                    segment.buffer.force();
+                    segment.close();
+                }
+                active.buffer.force();
+                forceCount++;
+                durableOffset = target;
+                synchronized (durableLock) {
+                    durableLock.notifyAll();
+                }
+            } else if (stop) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+            }
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    /**
+     * 找到最后一条完整记录之后的位置
+     */
+    private static int scanEnd(MappedByteBuffer buffer, int limit) {
+        CRC32C check = new CRC32C();
+        int p = 0;
+        while (p + HEADER <= limit) {
+            int length = buffer.getInt(p);
+            if (length <= 0 || p + HEADER + length > limit) {
+                break;
+            }
+            check.reset();
+            check.update(buffer.slice(p + HEADER, length));
+            if ((int) check.getValue() != buffer.getInt(p + Integer.BYTES)) {
+                break;
+            }
+            p += HEADER + length;
+        }
+        return p;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static int putString(ByteBuffer buffer, int position, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort(position, (short) -1);
+            return position + Short.BYTES;
+        }
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("字符串太长：" + bytes.length + " 字节");
+        }
+        buffer.putShort(position, (short) bytes.length);
+        buffer.put(position + Short.BYTES, bytes);
+        return position + Short.BYTES + bytes.length;
+    }
+
+    private static String getString(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte ordinal(OrderStatus status) {
+        return (byte) (status == null ? -1 : status.ordinal());
+    }
+
+    private static OrderStatus status(byte ordinal) {
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    /**
+     * 一个分段文件及其内存映射
+     */
+    private static final class Segment implements AutoCloseable {
+        private final long base;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // 下一条记录在分段中的位置（只对正在写的分段有意义）
+        private int position;
+
+        private Segment(long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long base, int size, FileChannel.MapMode mode) throws IOException {
+            FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+                    ? FileChannel.open(path, StandardOpenOption.READ)
+                    : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                long mapped = mode == FileChannel.MapMode.READ_ONLY ? Math.min(size, channel.size()) : size;
+                return new Segment(base, channel, channel.map(mode, 0, mapped));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("关闭日志分段失败：" + base, e);
+            }
+        }
+    }
+}
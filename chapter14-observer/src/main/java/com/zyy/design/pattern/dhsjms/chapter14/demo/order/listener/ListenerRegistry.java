@@ -0,0 +1,196 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * 观察者注册表（写时复制）
+ *
+ * 1. 分发事件只读取一次快照再遍历，不加锁、不创建对象，注册或移除观察者时也不会抛出 ConcurrentModificationException
+ * 2. 注册和移除不加锁：基于当前快照构造新快照，再用 CAS 整体替换，失败时基于最新快照重试；
+ *    判断是否已注册查快照中的集合，O(1)
+ * 3. 取舍：每次注册、移除都要复制观察者数组和集合并重建路由表，是 O(n + 状态数² × n) 而不是 O(1)，
+ *    并发写入冲突时还要重做；观察者变更远比事件少，换来分发路径上零开销的不可变快照
+ * 4. 快照中预先按（原状态, 新状态）计算好路由表，分发时只通知关心该状态变更的观察者
+ */
+public class ListenerRegistry {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(new OrderStatusListener[0], 0));
+
+    /**
+     * 注册观察者
+     * @return 已经注册过时返回 false
+     */
+    public boolean register(OrderStatusListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current.members.contains(listener)) {
+                return false;
+            }
+            OrderStatusListener[] next = Arrays.copyOf(current.listeners, current.listeners.length + 1);
+            next[current.listeners.length] = listener;
+            if (snapshot.compareAndSet(current, new Snapshot(next, current.version + 1))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 移除观察者
+     * @return 没有注册过时返回 false
+     */
+    public boolean remove(OrderStatusListener listener) {
+        if (listener == null) {
+            return false;
+        }
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (!current.members.contains(listener)) {
+                return false;
+            }
+            OrderStatusListener[] next = new OrderStatusListener[current.listeners.length - 1];
+            for (int i = 0, j = 0; i < current.listeners.length; i++) {
+                if (!current.listeners[i].equals(listener)) {
+                    next[j++] = current.listeners[i];
+                }
+            }
+            if (snapshot.compareAndSet(current, new Snapshot(next, current.version + 1))) {
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(OrderStatusListener listener) {
+        return listener != null && snapshot.get().members.contains(listener);
+    }
+
+    public int size() {
+        return snapshot.get().listeners.length;
+    }
+
+    /**
+     * 每次注册或移除观察者加一，调用方可以据此判断观察者是否变化过
+     */
+    public long getVersion() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * 当前观察者的只读快照，按注册顺序排列
+     */
+    public List<OrderStatusListener> getListeners() {
+        return List.of(snapshot.get().listeners);
+    }
+
+    /**
+     * 关心某个状态变更的观察者，按注册顺序排列
+     */
+    public List<OrderStatusListener> getListeners(OrderStatus oldStatus, OrderStatus newStatus) {
+        return List.of(snapshot.get().route(oldStatus, newStatus));
+    }
+
+    /**
+     * 把事件依次交给当前快照中关心该状态变更的观察者
+     * 分发过程中新注册的观察者收不到本次事件，被移除的观察者仍会收到本次事件
+     */
+    public void dispatch(OrderStatusEvent event) {
+        for (OrderStatusListener listener : snapshot.get().route(event.getOldStatus(), event.getNewStatus())) {
+            listener.onOrderStatusChange(event);
+        }
+    }
+
+    /**
+     * 由调用方决定如何调用每个观察者（例如统计每个观察者的耗时），invoker 依次收到关心该事件的观察者和事件
+     */
+    public void dispatch(OrderStatusEvent event, BiConsumer<OrderStatusListener, OrderStatusEvent> invoker) {
+        for (OrderStatusListener listener : snapshot.get().route(event.getOldStatus(), event.getNewStatus())) {
+            invoker.accept(listener, event);
+        }
+    }
+
+    /**
+     * 批量分发：每个观察者只调用一次 {@link OrderStatusListener#onOrderStatusChanges}，收到它关心的全部事件
+     * 观察者按注册顺序调用，每个观察者收到的事件保持发布顺序
+     */
+    public void dispatchBatch(List<? extends OrderStatusEvent> events) {
+        dispatchBatch(events, OrderStatusListener::onOrderStatusChanges);
+    }
+
+    /**
+     * 由调用方决定如何批量调用每个观察者，invoker 依次收到观察者和它关心的全部事件（不可修改的列表）
+     */
+    public void dispatchBatch(List<? extends OrderStatusEvent> events,
+                              BiConsumer<OrderStatusListener, List<OrderStatusEvent>> invoker) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Snapshot current = snapshot.get();
+        Map<OrderStatusListener, List<OrderStatusEvent>> byListener = new IdentityHashMap<>();
+        for (OrderStatusEvent event : events) {
+            for (OrderStatusListener listener : current.route(event.getOldStatus(), event.getNewStatus())) {
+                byListener.computeIfAbsent(listener, key -> new ArrayList<>()).add(event);
+            }
+        }
+        for (OrderStatusListener listener : current.listeners) {
+            List<OrderStatusEvent> interested = byListener.get(listener);
+            if (interested != null) {
+                invoker.accept(listener, Collections.unmodifiableList(interested));
+            }
+        }
+    }
+
+    /**
+     * 不可变快照：全部观察者、用于判断是否已注册的集合和按状态变更划分的路由表
+     */
+    private static final class Snapshot {
+        private final OrderStatusListener[] listeners;
+        private final Set<OrderStatusListener> members;
+        // 下标为 原状态序号 * 状态数 + 新状态序号
+        private final OrderStatusListener[][] routes;
+        private final long version;
+
+        private Snapshot(OrderStatusListener[] listeners, long version) {
+            this.listeners = listeners;
+            this.members = new HashSet<>(Arrays.asList(listeners));
+            this.version = version;
+            this.routes = new OrderStatusListener[STATUSES.length * STATUSES.length][];
+            OrderStatusListener[] buffer = new OrderStatusListener[listeners.length];
+            for (OrderStatus oldStatus : STATUSES) {
+                for (OrderStatus newStatus : STATUSES) {
+                    int count = 0;
+                    for (OrderStatusListener listener : listeners) {
+                        if (listener.handles(oldStatus, newStatus)) {
+                            buffer[count++] = listener;
+                        }
+                    }
+                    routes[oldStatus.ordinal() * STATUSES.length + newStatus.ordinal()] = Arrays.copyOf(buffer, count);
+                }
+            }
+        }
+
+        private OrderStatusListener[] route(OrderStatus oldStatus, OrderStatus newStatus) {
+            if (oldStatus == null || newStatus == null) {
+                // 状态缺失的事件无法查表，逐个询问观察者
+                return Arrays.stream(listeners)
+                        .filter(listener -> listener.handles(oldStatus, newStatus))
+                        .toArray(OrderStatusListener[]::new);
+            }
+            return routes[oldStatus.ordinal() * STATUSES.length + newStatus.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 观察者注册表并发压力测试：多个线程不停地分发事件，同时另外的线程反复注册、移除观察者
+ *
+ * 校验：
+ * 1. 分发过程中不出现任何异常（原来的 ArrayList 会抛出 ConcurrentModificationException）
+ * 2. 常驻观察者收到的事件数与分发的事件数完全一致
+ * 3. 结束后注册表中只剩常驻观察者，快照与成员一致
+ * 运行参数可以指定事件总数，默认 5,000,000
+ */
+public class ListenerRegistryStress {
+
+    private static final int PUBLISHERS = 4;
+    private static final int CHURNERS = 2;
+    private static final int RESIDENTS = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        long events = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000L;
+        long perPublisher = events / PUBLISHERS;
+
+        ListenerRegistry registry = new ListenerRegistry();
+        List<CountingListener> residents = new ArrayList<>();
+        for (int i = 0; i < RESIDENTS; i++) {
+            CountingListener listener = new CountingListener();
+            residents.add(listener);
+            registry.register(listener);
+            // 重复注册应当被忽略
+            if (registry.register(listener)) {
+                throw new IllegalStateException("重复注册没有被拒绝");
+            }
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        LongAdder churnCount = new LongAdder();
+        LongAdder transientDeliveries = new LongAdder();
+
+        List<Thread> churners = new ArrayList<>();
+        for (int c = 0; c < CHURNERS; c++) {
+            Thread churner = new Thread(() -> {
+                List<CountingListener> pool = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    pool.add(new CountingListener());
+                }
+                int i = 0;
+                while (publishing.get()) {
+                    CountingListener listener = pool.get(i++ & 7);
+                    registry.register(listener);
+                    registry.remove(listener);
+                    churnCount.increment();
+                }
+                for (CountingListener listener : pool) {
+                    registry.remove(listener);
+                    transientDeliveries.add(listener.count.sum());
+                }
+            }, "churner-" + c);
+            churner.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+            churners.add(churner);
+        }
+
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++) {
+            String orderId = "ORDER-" + p;
+            Thread publisher = new Thread(() -> {
+                OrderStatusEvent event = new OrderStatusEvent(orderId, OrderStatus.PENDING_PAYMENT, OrderStatus.PAID, "USER-1");
+                for (long i = 0; i < perPublisher; i++) {
+                    registry.dispatch(event);
+                }
+            }, "publisher-" + p);
+            publisher.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+            publishers.add(publisher);
+        }
+
+        long start = System.nanoTime();
+        churners.forEach(Thread::start);
+        publishers.forEach(Thread::start);
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        publishing.set(false);
+        for (Thread churner : churners) {
+            churner.join();
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("压力测试中出现异常", failure.get());
+        }
+        long published = perPublisher * PUBLISHERS;
+        for (CountingListener resident : residents) {
+            if (resident.count.sum() != published) {
+                throw new IllegalStateException("常驻观察者丢失事件：" + resident.count.sum() + " != " + published);
+            }
+        }
+        if (registry.size() != RESIDENTS || !registry.getListeners().equals(residents)) {
+            throw new IllegalStateException("注册表状态不一致：" + registry.getListeners());
+        }
+        System.out.printf("分发 %,d 个事件，注册/移除 %,d 轮，临时观察者收到 %,d 个事件，耗时 %d ms，校验通过%n",
+                published, churnCount.sum(), transientDeliveries.sum(), nanos / 1_000_000);
+    }
+
+    private static final class CountingListener implements OrderStatusListener {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void onOrderStatusChange(OrderStatusEvent event) {
+            count.increment();
+        }
+    }
+}
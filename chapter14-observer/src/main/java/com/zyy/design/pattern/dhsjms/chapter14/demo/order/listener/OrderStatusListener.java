@@ -1,7 +1,10 @@
 package com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener;
 
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
 import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
 
+import java.util.List;
+
 /**
  * 订单状态监听器（抽象观察者）
  */
@@ -9,4 +12,22 @@ public interface OrderStatusListener {
 
     void onOrderStatusChange(OrderStatusEvent event);
 
+    /**
+     * 批量接收事件，events 中只有本观察者关心的事件，按发布顺序排列
+     * 默认逐个调用 {@link #onOrderStatusChange}；能把多次下游调用合并成一次的观察者（如扣减库存）可以覆盖此方法
+     */
+    default void onOrderStatusChanges(List<OrderStatusEvent> events) {
+        for (OrderStatusEvent event : events) {
+            onOrderStatusChange(event);
+        }
+    }
+
+    /**
+     * 是否关心某个状态变更，注册表据此预先计算路由表，分发时只通知关心该变更的观察者
+     * 结果只能取决于两个状态，注册后不能再改变；默认关心所有状态变更
+     */
+    default boolean handles(OrderStatus oldStatus, OrderStatus newStatus) {
+        return true;
+    }
+
 }
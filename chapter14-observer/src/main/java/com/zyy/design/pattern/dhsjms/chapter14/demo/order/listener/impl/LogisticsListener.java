@@ -8,9 +8,14 @@ import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusLi
  * 具体观察者3：物流观察者 - 生成运单
  */
 public class LogisticsListener implements OrderStatusListener {
+    @Override
+    public boolean handles(OrderStatus oldStatus, OrderStatus newStatus) {
+        return oldStatus == OrderStatus.PENDING_DELIVERY && newStatus == OrderStatus.DELIVERED;
+    }
+
     @Override
     public void onOrderStatusChange(OrderStatusEvent event) {
-        if (event.getOldStatus() == OrderStatus.PENDING_DELIVERY && event.getNewStatus() == OrderStatus.DELIVERED) {
+        if (handles(event.getOldStatus(), event.getNewStatus())) {
             System.out.println("🚚 物流服务：订单[" + event.getOrderId() + "]已发货，生成运单（运单号：YD" + System.currentTimeMillis() + "）");
             // 实际场景：调用物流系统API生成运单
         }
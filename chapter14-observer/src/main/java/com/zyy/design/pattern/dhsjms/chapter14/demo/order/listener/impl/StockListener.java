@@ -4,16 +4,36 @@ import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
 import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
 import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
 
+import java.util.List;
+
 /**
  * 具体观察者1：库存观察者 - 扣减库存
  */
 public class StockListener implements OrderStatusListener {
+    // 仅处理「待付款→已付款」的状态变更
+    @Override
+    public boolean handles(OrderStatus oldStatus, OrderStatus newStatus) {
+        return oldStatus == OrderStatus.PENDING_PAYMENT && newStatus == OrderStatus.PAID;
+    }
+
     @Override
     public void onOrderStatusChange(OrderStatusEvent event) {
-        // 仅处理「待付款→已付款」的状态变更
-        if (event.getOldStatus() == OrderStatus.PENDING_PAYMENT && event.getNewStatus() == OrderStatus.PAID) {
+        // 注册表只把关心的状态变更路由过来，直接调用时仍按状态过滤
+        if (handles(event.getOldStatus(), event.getNewStatus())) {
             System.out.println("📦 库存服务：订单[" + event.getOrderId() + "]已付款，扣减对应商品库存");
             // 实际场景：调用库存系统API扣减库存
         }
     }
+
+    // 批量扣减：N 个订单只调用一次库存系统
+    @Override
+    public void onOrderStatusChanges(List<OrderStatusEvent> events) {
+        if (events.size() == 1) {
+            onOrderStatusChange(events.get(0));
+            return;
+        }
+        System.out.println("📦 库存服务：" + events.size() + " 个订单已付款（首个订单[" + events.get(0).getOrderId()
+                + "]），批量扣减对应商品库存");
+        // 实际场景：调用库存系统批量接口扣减库存
+    }
 }
\ No newline at end of file
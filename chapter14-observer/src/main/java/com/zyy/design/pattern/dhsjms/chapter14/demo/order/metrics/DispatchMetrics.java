@@ -0,0 +1,126 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.metrics;
+
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 分发指标：队列深度、入队到开始分发的等待时间、每个观察者的执行时间（纳秒），以及溢出时各策略的处理次数
+ */
+public class DispatchMetrics {
+
+    private final IntSupplier queueDepth;
+    // 每次入队时的队列深度
+    private final Log2Histogram queueDepthHistogram = new Log2Histogram();
+    private final Log2Histogram enqueueToDispatchNanos = new Log2Histogram();
+    private final Map<OrderStatusListener, Log2Histogram> listenerNanos = new ConcurrentHashMap<>();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+
+    /**
+     * @param queueDepth 读取当前队列深度
+     */
+    public DispatchMetrics(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    public Log2Histogram getQueueDepthHistogram() {
+        return queueDepthHistogram;
+    }
+
+    public Log2Histogram getEnqueueToDispatchNanos() {
+        return enqueueToDispatchNanos;
+    }
+
+    /**
+     * 每个观察者的执行时间
+     */
+    public Map<OrderStatusListener, Log2Histogram> getListenerNanos() {
+        return Collections.unmodifiableMap(listenerNanos);
+    }
+
+    public Log2Histogram listenerNanos(OrderStatusListener listener) {
+        return listenerNanos.computeIfAbsent(listener, key -> new Log2Histogram());
+    }
+
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.sum();
+    }
+
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    public void recordQueueDepth(int depth) {
+        queueDepthHistogram.record(depth);
+    }
+
+    public void recordEnqueueToDispatch(long nanos) {
+        enqueueToDispatchNanos.record(nanos);
+    }
+
+    public void recordListener(OrderStatusListener listener, long nanos) {
+        listenerNanos(listener).record(nanos);
+    }
+
+    /**
+     * 只保留仍然注册着的观察者的执行时间，观察者变化后由分发器调用，避免已移除的观察者一直占着内存
+     */
+    public void retainListeners(Predicate<? super OrderStatusListener> registered) {
+        listenerNanos.keySet().removeIf(listener -> !registered.test(listener));
+    }
+
+    public void recordBlocked() {
+        blocked.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public void recordCallerRuns() {
+        callerRuns.increment();
+    }
+
+    public void recordSpilled() {
+        spilled.increment();
+    }
+
+    /**
+     * 多行文本报告
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("队列深度：").append(getQueueDepth()).append("（入队时 ").append(queueDepthHistogram).append("）\n");
+        report.append("入队→分发（纳秒）：").append(enqueueToDispatchNanos).append('\n');
+        report.append(String.format("溢出：阻塞 %d，丢弃 %d，调用方执行 %d，落盘 %d%n",
+                getBlocked(), getDropped(), getCallerRuns(), getSpilled()));
+        listenerNanos.forEach((listener, histogram) -> report.append("观察者 ")
+                .append(nameOf(listener)).append("（纳秒）：").append(histogram).append('\n'));
+        return report.toString();
+    }
+
+    private static String nameOf(OrderStatusListener listener) {
+        String name = listener.getClass().getSimpleName();
+        return name.isEmpty() ? listener.getClass().getName() : name;
+    }
+}
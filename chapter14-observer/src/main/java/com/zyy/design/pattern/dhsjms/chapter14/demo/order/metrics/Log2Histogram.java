@@ -0,0 +1,84 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo.order.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以 2 的幂为桶边界的直方图：记录一次只是一次位运算和一次原子加，可以放在分发热路径上
+ *
+ * 第 0 个桶记录 0，第 i 个桶记录 [2^(i-1), 2^i) 之间的值，分位数按桶的上界估算，误差在 2 倍以内
+ */
+public class Log2Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个非负数，负数按 0 记录
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(v));
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+            // 重试
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 估算分位数
+     * @param quantile 0~1，例如 0.99
+     * @return 该分位数所在桶的上界（不超过最大值），没有数据时返回 0
+     */
+    public long quantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        max.set(0L);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d p50=%d p90=%d p99=%d max=%d",
+                getCount(), quantile(0.5), quantile(0.9), quantile(0.99), getMax());
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0L : bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -2,55 +2,105 @@ package com.zyy.design.pattern.dhsjms.chapter14.demo.order.service;
 
 import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatus;
 import com.zyy.design.pattern.dhsjms.chapter14.demo.order.OrderStatusEvent;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.BoundedDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.dispatcher.OrderEventDispatcher;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.journal.OrderEventJournal;
+import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.ListenerRegistry;
 import com.zyy.design.pattern.dhsjms.chapter14.demo.order.listener.OrderStatusListener;
 
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Objects;
 
 /**
  * 订单服务（具体被观察者）
+ *
+ * 过程日志通过 System.Logger 输出：逐个事件的日志为 DEBUG 级别，批量和重放的日志为 INFO 级别。
+ * 先判断级别是否开启再拼接日志，级别关闭时发布事件不会格式化任何字符串
  */
 public class LocalOrderService {
-    // 观察者列表
-    private List<OrderStatusListener> listenerList = new ArrayList<>();
-    // 异步线程池：避免阻塞订单主流程
-    private ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(5);
+    private static final Logger LOGGER = System.getLogger(LocalOrderService.class.getName());
+
+    // 观察者注册表：分发线程遍历快照，运行期间注册、移除观察者是安全的
+    private final ListenerRegistry listenerRegistry = new ListenerRegistry();
+    // 异步分发器：避免阻塞订单主流程
+    private final OrderEventDispatcher dispatcher;
+
+    // 默认使用 5 个工作线程、容量 10,000 的有界队列分发，队列满时阻塞发布者
+    public LocalOrderService() {
+        this(new BoundedDispatcher());
+    }
+
+    // 指定分发器，例如按订单号分条带的 StripedDispatcher 可以保证同一订单的事件按顺序分发
+    public LocalOrderService(OrderEventDispatcher dispatcher) {
+        this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+    }
 
     // 注册观察者
     public void registerListener(OrderStatusListener listener) {
-        if (!listenerList.contains(listener)) {
-            listenerList.add(listener);
-        }
+        listenerRegistry.register(listener);
     }
 
     // 移除观察者
     public void removeListener(OrderStatusListener listener) {
-        listenerList.remove(listener);
+        listenerRegistry.remove(listener);
     }
 
     // 异步发布订单状态事件
     public void publishOrderStatusEvent(OrderStatusEvent event) {
-        System.out.println("📢 订单服务：发布订单状态变更事件 - " + event);
+        if (LOGGER.isLoggable(Level.DEBUG)) {
+            // 事件的 toString 由日志框架在真正输出时调用
+            LOGGER.log(Level.DEBUG, "📢 订单服务：发布订单状态变更事件 - {0}", event);
+        }
         // 异步分发事件，不阻塞订单主流程
-        executor.execute(() -> {
-            for (OrderStatusListener listener : listenerList) {
-                listener.onOrderStatusChange(event);
-            }
-        });
+        dispatcher.dispatch(event, listenerRegistry);
+    }
+
+    // 批量发布订单状态事件：整批交给分发器，支持批量回调的观察者只被调用一次
+    public void publishOrderStatusEvents(List<OrderStatusEvent> events) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "📢 订单服务：批量发布 {0} 个订单状态变更事件", events.size());
+        }
+        dispatcher.dispatchBatch(events, listenerRegistry);
     }
 
     // 变更订单状态
     public void changeOrderStatus(String orderId, OrderStatus oldStatus, OrderStatus newStatus, String userId) {
         // 1. 业务逻辑：更新订单状态（实际场景：操作数据库）
-        System.out.println("🔧 订单服务：更新订单[" + orderId + "]状态为" + newStatus.getDesc());
-        // 2. 发布状态变更事件
-        publishOrderStatusEvent(new OrderStatusEvent(orderId, oldStatus, newStatus, userId));
+        if (LOGGER.isLoggable(Level.DEBUG)) {
+            LOGGER.log(Level.DEBUG, "🔧 订单服务：更新订单[{0}]状态为{1}", orderId, newStatus.getDesc());
+            // 2. 发布状态变更事件（需要打印事件内容，先创建事件对象）
+            publishOrderStatusEvent(new OrderStatusEvent(orderId, oldStatus, newStatus, userId));
+            return;
+        }
+        // 2. 发布状态变更事件：直接按字段发布，由分发器决定是否复用事件对象
+        dispatcher.publish(orderId, oldStatus, newStatus, userId, listenerRegistry);
+    }
+
+    // 批量变更订单状态（例如仓库扫描后把一批订单标记为已发货）
+    public void changeOrderStatus(List<String> orderIds, OrderStatus oldStatus, OrderStatus newStatus, String userId) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "🔧 订单服务：批量更新 {0} 个订单状态为{1}", orderIds.size(), newStatus.getDesc());
+        }
+        List<OrderStatusEvent> events = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            events.add(new OrderStatusEvent(orderId, oldStatus, newStatus, userId));
+        }
+        publishOrderStatusEvents(events);
+    }
+
+    // 从事件日志的 fromOffset 开始，把事件同步重放给当前注册的观察者，返回下一次重放的起点
+    public long replay(OrderEventJournal journal, long fromOffset) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "⏪ 订单服务：从偏移量 {0} 开始重放订单状态事件", fromOffset);
+        }
+        return journal.replay(fromOffset, listenerRegistry);
     }
 
-    // 关闭线程池
+    // 关闭分发器
     public void shutdown() {
-        executor.shutdown();
+        dispatcher.shutdown();
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo01;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 高频传感器读数的被观察者，用来替代 java.util.Observable
+ *
+ * 1. 通知不加锁：观察者保存在不可变数组中，发布时只读取一次快照；订阅和取消订阅用 CAS 替换整个数组
+ * 2. 合并通知：每个观察者只有一个“最新读数”槽位，观察者还没处理完时新读数直接覆盖旧读数，
+ *    慢观察者只会看到最新值，不会积压
+ * 3. 弱引用：被观察者只弱引用观察者，调用方不再持有观察者后可以被回收，发布时顺便清理
+ *    注意：调用方必须自己持有观察者的强引用，直接传入的 lambda 可能很快被回收
+ * 4. 观察者的线程池拒绝通知任务（例如已经关闭）时取消该订阅，不影响发布者和其他观察者
+ * @param <T> 读数类型
+ */
+public class ConflatingSubject<T> {
+
+    // 直接在发布线程中通知观察者
+    private static final Executor CALLER = Runnable::run;
+
+    @SuppressWarnings("rawtypes")
+    private static final Subscription[] EMPTY = new Subscription[0];
+
+    @SuppressWarnings("unchecked")
+    private final AtomicReference<Subscription<T>[]> subscriptions = new AtomicReference<>(EMPTY);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 订阅读数，在发布线程中通知
+     */
+    public Subscription<T> subscribe(SensorObserver<? super T> observer) {
+        return subscribe(observer, CALLER);
+    }
+
+    /**
+     * 订阅读数，在指定的线程池中通知；同一个观察者同一时刻最多只有一个通知在执行
+     */
+    public Subscription<T> subscribe(SensorObserver<? super T> observer, Executor executor) {
+        Subscription<T> subscription = new Subscription<>(this, observer, executor);
+        Subscription<T>[] current;
+        Subscription<T>[] next;
+        do {
+            current = subscriptions.get();
+            next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = subscription;
+        } while (!subscriptions.compareAndSet(current, next));
+        return subscription;
+    }
+
+    /**
+     * 发布最新读数，任意线程都可以调用
+     */
+    public void publish(T reading) {
+        Objects.requireNonNull(reading, "reading");
+        published.increment();
+        boolean collected = false;
+        for (Subscription<T> subscription : subscriptions.get()) {
+            if (!subscription.offer(reading)) {
+                collected = true;
+            }
+        }
+        if (collected) {
+            purge();
+        }
+    }
+
+    /**
+     * 当前订阅数（包括已被回收但还没有清理的观察者）
+     */
+    public int getSubscriberCount() {
+        return subscriptions.get().length;
+    }
+
+    /**
+     * 累计发布的读数
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * 累计被覆盖、没有送达观察者的读数（按观察者累加）
+     */
+    public long getConflatedCount() {
+        return conflated.sum();
+    }
+
+    /**
+     * 因线程池拒绝通知任务而被取消的订阅数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 清理已取消或已被回收的订阅
+     */
+    public void purge() {
+        Subscription<T>[] current;
+        Subscription<T>[] next;
+        do {
+            current = subscriptions.get();
+            int alive = 0;
+            for (Subscription<T> subscription : current) {
+                if (subscription.isActive()) {
+                    alive++;
+                }
+            }
+            if (alive == current.length) {
+                return;
+            }
+            next = Arrays.copyOf(current, alive);
+            for (int i = 0, j = 0; i < current.length; i++) {
+                if (current[i].isActive()) {
+                    next[j++] = current[i];
+                }
+            }
+        } while (!subscriptions.compareAndSet(current, next));
+    }
+
+    /**
+     * 一个观察者的订阅：弱引用观察者，保存尚未送达的最新读数
+     */
+    public static final class Subscription<T> implements AutoCloseable {
+        private final ConflatingSubject<T> subject;
+        private final WeakReference<SensorObserver<? super T>> observer;
+        private final Executor executor;
+        // 在发布线程中通知：发布线程自己执行观察者，不会积压，直接调用即可
+        private final boolean direct;
+        // 尚未送达的最新读数，null 表示没有
+        private final AtomicReference<T> pending = new AtomicReference<>();
+        // 是否已经安排了通知任务
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+        // 复用同一个任务对象，安排通知时不创建对象
+        private final Runnable drainTask = this::drain;
+
+        private Subscription(ConflatingSubject<T> subject, SensorObserver<? super T> observer, Executor executor) {
+            this.subject = subject;
+            this.observer = new WeakReference<>(Objects.requireNonNull(observer, "observer"));
+            this.executor = Objects.requireNonNull(executor, "executor");
+            this.direct = executor == CALLER;
+        }
+
+        /**
+         * @return 观察者已经取消、被回收或线程池拒绝了通知任务时返回 false
+         */
+        private boolean offer(T reading) {
+            if (direct) {
+                SensorObserver<? super T> target = observer.get();
+                if (target == null || cancelled) {
+                    return false;
+                }
+                target.onReading(reading);
+                return true;
+            }
+            if (!isActive()) {
+                return false;
+            }
+            if (pending.getAndSet(reading) != null) {
+                subject.conflated.increment();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(drainTask);
+                } catch (RejectedExecutionException e) {
+                    // 线程池已关闭或已满，取消订阅，由发布线程清理，异常不传给发布者
+                    cancelled = true;
+                    pending.set(null);
+                    scheduled.set(false);
+                    subject.rejected.increment();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void drain() {
+            do {
+                T reading;
+                while ((reading = pending.getAndSet(null)) != null) {
+                    SensorObserver<? super T> target = observer.get();
+                    if (target == null || cancelled) {
+                        pending.set(null);
+                        break;
+                    }
+                    target.onReading(reading);
+                }
+                scheduled.set(false);
+                // 放下标记后再检查一次，防止漏掉刚刚发布的读数
+            } while (pending.get() != null && isActive() && scheduled.compareAndSet(false, true));
+        }
+
+        public boolean isActive() {
+            return !cancelled && observer.get() != null;
+        }
+
+        /**
+         * 取消订阅，已经开始的通知会执行完
+         */
+        @Override
+        public void close() {
+            cancelled = true;
+            pending.set(null);
+            subject.purge();
+        }
+    }
+}
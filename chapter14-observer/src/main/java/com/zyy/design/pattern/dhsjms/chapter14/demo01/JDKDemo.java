@@ -1,11 +1,93 @@
 package com.zyy.design.pattern.dhsjms.chapter14.demo01;
 
-import java.lang.ref.WeakReference;
+import java.lang.ref.Reference;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * 天气站演示：用 ConflatingSubject 代替 java.util.Observable
+ *
+ * 1. 传感器以每秒 1,000,000 次的速度上报读数
+ * 2. 快观察者在上报线程中收到每一个读数；慢观察者每个读数处理 20 ms，只收到最新读数，不会积压
+ * 3. 没有被任何地方引用的观察者在 GC 后被自动清理，不会泄漏
+ * 运行参数可以指定上报的秒数，默认 1
+ */
 public class JDKDemo {
 
-    public static void main(String[] args) {
-//        WeakReference
+    private static final long UPDATES_PER_SECOND = 1_000_000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        WeatherStation station = new WeatherStation();
+
+        // 快观察者：只累加读数，在上报线程中执行
+        AtomicLong fastCount = new AtomicLong();
+        SensorObserver<WeatherReading> fastDisplay = reading -> fastCount.incrementAndGet();
+        station.addObserver(fastDisplay);
+
+        // 慢观察者：模拟刷新大屏，每个读数耗时 20 ms
+        AtomicLong slowCount = new AtomicLong();
+        AtomicReference<WeatherReading> slowLast = new AtomicReference<>();
+        SensorObserver<WeatherReading> slowDashboard = reading -> {
+            slowCount.incrementAndGet();
+            slowLast.set(reading);
+            sleep(20);
+        };
+        ExecutorService dashboardThread = Executors.newSingleThreadExecutor();
+        station.addObserver(slowDashboard, dashboardThread);
+
+        // 被遗忘的观察者：订阅后不再持有引用，也没有取消订阅
+        station.addObserver(new SensorObserver<WeatherReading>() {
+            @Override
+            public void onReading(WeatherReading reading) {
+            }
+        });
+        System.out.println("订阅数：" + station.countObservers());
+
+        // 按每秒 1,000,000 次的速度上报读数，每 1000 次对一下时间
+        long total = UPDATES_PER_SECOND * seconds;
+        long nanosPerThousand = 1_000_000_000L * 1000 / UPDATES_PER_SECOND;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            station.measurementsChanged(20 + (i % 100) / 10.0, 0.5, 1013.25);
+            if (i % 1000 == 999) {
+                long deadline = start + (i + 1) / 1000 * nanosPerThousand;
+                while (System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            }
+            if (i == total / 2) {
+                // 上报过程中触发 GC，被遗忘的观察者在下一次上报时被清理
+                System.gc();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        dashboardThread.shutdown();
+        dashboardThread.awaitTermination(5, TimeUnit.SECONDS);
+
+        ConflatingSubject<WeatherReading> subject = station.getSubject();
+        System.out.printf("上报 %,d 个读数，耗时 %d ms（%,.0f 次/秒）%n",
+                subject.getPublishedCount(), nanos / 1_000_000, subject.getPublishedCount() * 1e9 / nanos);
+        System.out.printf("快观察者收到 %,d 个读数%n", fastCount.get());
+        System.out.printf("慢观察者收到 %,d 个读数，合并掉 %,d 个，最后收到的读数序号 %,d（最新序号 %,d）%n",
+                slowCount.get(), subject.getConflatedCount(), slowLast.get().getSequence(), station.getLatest().getSequence());
+        System.out.println("GC 后订阅数：" + station.countObservers());
+
+        // 天气站只弱引用观察者，保证两个观察者在上报结束前一直可达
+        Reference.reachabilityFence(fastDisplay);
+        Reference.reachabilityFence(slowDashboard);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 }
@@ -0,0 +1,15 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo01;
+
+/**
+ * 传感器读数观察者
+ * @param <T> 读数类型
+ */
+@FunctionalInterface
+public interface SensorObserver<T> {
+
+    /**
+     * 收到最新读数；观察者处理较慢时，中间的读数会被合并掉，只收到最新的一个
+     */
+    void onReading(T reading);
+
+}
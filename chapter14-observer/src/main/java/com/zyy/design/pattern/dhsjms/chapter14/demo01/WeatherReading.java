@@ -0,0 +1,48 @@
+package com.zyy.design.pattern.dhsjms.chapter14.demo01;
+
+/**
+ * 一次天气读数（不可变）
+ */
+public final class WeatherReading {
+
+    private final long sequence;
+    private final double temperature;
+    private final double humidity;
+    private final double pressure;
+
+    public WeatherReading(long sequence, double temperature, double humidity, double pressure) {
+        this.sequence = sequence;
+        this.temperature = temperature;
+        this.humidity = humidity;
+        this.pressure = pressure;
+    }
+
+    /**
+     * 读数序号，从 1 开始递增，可以据此判断中间合并掉了多少个读数
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public double getHumidity() {
+        return humidity;
+    }
+
+    public double getPressure() {
+        return pressure;
+    }
+
+    @Override
+    public String toString() {
+        return "WeatherReading{" +
+                "sequence=" + sequence +
+                ", temperature=" + temperature +
+                ", humidity=" + humidity +
+                ", pressure=" + pressure +
+                '}';
+    }
+}
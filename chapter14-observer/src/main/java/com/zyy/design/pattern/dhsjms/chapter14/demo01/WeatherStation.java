@@ -1,6 +1,55 @@
 package com.zyy.design.pattern.dhsjms.chapter14.demo01;
 
-import java.util.Observable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class WeatherStation extends Observable {
+/**
+ * 天气站（具体被观察者）
+ *
+ * 原来继承 java.util.Observable：每次通知都要加锁，观察者保存在 Vector 中，慢观察者会拖慢发布读数的线程
+ * 现在通过组合 {@link ConflatingSubject} 发布读数，通知不加锁，慢观察者只看到最新读数，不再被引用的观察者会被自动清理
+ */
+public class WeatherStation {
+
+    private final ConflatingSubject<WeatherReading> subject = new ConflatingSubject<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile WeatherReading latest;
+
+    /**
+     * 传感器上报新的测量值
+     */
+    public void measurementsChanged(double temperature, double humidity, double pressure) {
+        WeatherReading reading = new WeatherReading(sequence.incrementAndGet(), temperature, humidity, pressure);
+        latest = reading;
+        subject.publish(reading);
+    }
+
+    /**
+     * 在上报读数的线程中通知观察者；天气站只弱引用观察者，调用方需要自己持有它
+     */
+    public ConflatingSubject.Subscription<WeatherReading> addObserver(SensorObserver<? super WeatherReading> observer) {
+        return subject.subscribe(observer);
+    }
+
+    /**
+     * 在指定线程池中通知观察者，处理不过来时只收到最新读数
+     */
+    public ConflatingSubject.Subscription<WeatherReading> addObserver(SensorObserver<? super WeatherReading> observer, Executor executor) {
+        return subject.subscribe(observer, executor);
+    }
+
+    /**
+     * 最近一次读数，还没有读数时为 null
+     */
+    public WeatherReading getLatest() {
+        return latest;
+    }
+
+    public int countObservers() {
+        return subject.getSubscriberCount();
+    }
+
+    public ConflatingSubject<WeatherReading> getSubject() {
+        return subject;
+    }
 }